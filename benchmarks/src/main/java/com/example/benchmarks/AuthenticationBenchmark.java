@@ -0,0 +1,124 @@
+package com.example.benchmarks;
+
+import com.example.service.ServiceApplication;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.MapReactiveUserDetailsService;
+import org.springframework.security.oauth2.server.resource.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtReactiveAuthenticationManager;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authentications per second through the service's authentication managers: username and password
+ * with and without the credentials cache, and a signed JWT.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class AuthenticationBenchmark {
+
+    static final String SIMPLE = "simple";
+    static final String SIMPLE_UNCACHED = "simple-uncached";
+    static final String BEARER = "bearer";
+
+    @Param({SIMPLE, SIMPLE_UNCACHED, BEARER})
+    public String authentication;
+
+    private DisposableServer keys;
+
+    private ConfigurableApplicationContext context;
+
+    private ReactiveAuthenticationManager manager;
+
+    private Authentication credentials;
+
+    @Setup
+    public void setUp() throws JOSEException {
+        var key = new RSAKeyGenerator(2048).keyID("greetings").generate();
+        var jwkSet = new JWKSet(key.toPublicJWK()).toString();
+        this.keys = HttpServer
+                .create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes.get("/jwks", (request, response) -> response.sendString(Mono.just(jwkSet))))
+                .bindNow();
+        this.context = new SpringApplicationBuilder(ServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.rsocket.server.port=0",
+                        "--service.security.authentication=" + (BEARER.equals(this.authentication) ? BEARER : SIMPLE),
+                        "--service.security.bearer.jwk-set-uri=http://localhost:" + this.keys.port() + "/jwks",
+                        "--spring.main.banner-mode=off", "--logging.level.root=warn");
+        if (BEARER.equals(this.authentication)) {
+            this.manager = this.context.getBean(JwtReactiveAuthenticationManager.class);
+            this.credentials = new BearerTokenAuthenticationToken(token(key));
+        }
+        else if (SIMPLE_UNCACHED.equals(this.authentication)) {
+            // every call checks the password, as the cache does on a miss
+            this.manager = new UserDetailsRepositoryReactiveAuthenticationManager(this.context.getBean(MapReactiveUserDetailsService.class));
+            this.credentials = new UsernamePasswordAuthenticationToken("jlong", "pw");
+        }
+        else {
+            this.manager = this.context.getBean("cachingAuthenticationManager", ReactiveAuthenticationManager.class);
+            this.credentials = new UsernamePasswordAuthenticationToken("jlong", "pw");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.context.close();
+        this.keys.disposeNow();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Authentication authenticationsPerSecond() {
+        return this.manager.authenticate(this.credentials).block();
+    }
+
+    private static String token(RSAKey key) throws JOSEException {
+        var claims = new JWTClaimsSet.Builder()
+                .subject("jlong")
+                .claim("roles", List.of("USER"))
+                .expirationTime(Date.from(Instant.now().plus(Duration.ofHours(1))))
+                .build();
+        var jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.benchmarks;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Decoder;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode cost of a {@code GreetingResponse} for each data mime type the service accepts.
+ * The payload size per frame is reported as {@code encode:bytes}.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CodecBenchmark {
+
+    private static final ResolvableType TYPE = ResolvableType.forClass(GreetingResponse.class);
+
+    @Param({"application/json", "application/cbor"})
+    public String mimeType;
+
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+
+    private final GreetingResponse response = new GreetingResponse("ni hao jlong @ " + Instant.now() + "!");
+
+    private MimeType type;
+
+    private Encoder<Object> encoder;
+
+    private Decoder<Object> decoder;
+
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        this.type = MimeTypeUtils.parseMimeType(this.mimeType);
+        if (this.type.equals(MimeTypeUtils.APPLICATION_JSON)) {
+            var mapper = Jackson2ObjectMapperBuilder.json().build();
+            this.encoder = new Jackson2JsonEncoder(mapper);
+            this.decoder = new Jackson2JsonDecoder(mapper);
+        }
+        else {
+            var mapper = Jackson2ObjectMapperBuilder.cbor().build();
+            this.encoder = new Jackson2CborEncoder(mapper);
+            this.decoder = new Jackson2CborDecoder(mapper);
+        }
+        var buffer = this.encodeResponse();
+        this.encoded = new byte[buffer.readableByteCount()];
+        buffer.read(this.encoded);
+        DataBufferUtils.release(buffer);
+    }
+
+    @Benchmark
+    public int encode(PayloadSize payloadSize) {
+        var buffer = this.encodeResponse();
+        var size = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        payloadSize.bytes = size;
+        return size;
+    }
+
+    @Benchmark
+    public Object decode() {
+        // the decoder releases the buffer it is handed
+        return this.decoder.decode(this.bufferFactory.wrap(this.encoded), TYPE, this.type, Collections.emptyMap());
+    }
+
+    private DataBuffer encodeResponse() {
+        return this.encoder.encodeValue(this.response, this.bufferFactory, TYPE, this.type, Collections.emptyMap());
+    }
+
+    // set, not added to, so JMH reports the size of one payload rather than a count
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+
+        public int bytes;
+    }
+}
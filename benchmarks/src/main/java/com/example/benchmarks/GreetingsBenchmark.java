@@ -0,0 +1,96 @@
+package com.example.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.messaging.rsocket.RSocketRequester;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code greetings} request stream end to end, over each transport, with and without the
+ * security chain.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class GreetingsBenchmark {
+
+    static final int STREAM_ELEMENTS = 1_000;
+
+    static final int PACK_SIZE = 100;
+
+    @Param({GreetingsService.TCP, GreetingsService.WEBSOCKET, GreetingsService.LOCAL})
+    public String transport;
+
+    @Param({"true", "false"})
+    public boolean secured;
+
+    private GreetingsService service;
+
+    private RSocketRequester requester;
+
+    @Setup
+    public void setUp() {
+        this.service = new GreetingsService(this.transport, this.secured);
+        this.requester = this.service.connect();
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.requester.rsocket().dispose();
+        this.service.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public GreetingResponse requestsPerSecond() {
+        return this.firstGreeting();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public GreetingResponse requestLatency() {
+        return this.firstGreeting();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(STREAM_ELEMENTS)
+    public GreetingResponse streamElementsPerSecond() {
+        return this.service
+                .greetings(this.requester, STREAM_ELEMENTS)
+                .blockLast();
+    }
+
+    // the same stream a hundred greetings a frame
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(STREAM_ELEMENTS)
+    public GreetingResponse batchedStreamElementsPerSecond() {
+        return this.service
+                .batchedGreetings(this.requester, STREAM_ELEMENTS, PACK_SIZE)
+                .blockLast();
+    }
+
+    private GreetingResponse firstGreeting() {
+        return this.service
+                .greetings(this.requester, 1)
+                .blockFirst();
+    }
+}
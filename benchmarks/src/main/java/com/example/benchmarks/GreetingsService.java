@@ -0,0 +1,184 @@
+package com.example.benchmarks;
+
+import com.example.service.ServiceApplication;
+import io.rsocket.Closeable;
+import io.rsocket.core.RSocketServer;
+import io.rsocket.metadata.WellKnownMimeType;
+import io.rsocket.transport.ClientTransport;
+import io.rsocket.transport.local.LocalClientTransport;
+import io.rsocket.transport.local.LocalServerTransport;
+import io.rsocket.transport.netty.client.TcpClientTransport;
+import io.rsocket.transport.netty.client.WebsocketClientTransport;
+import io.rsocket.transport.netty.server.CloseableChannel;
+import io.rsocket.transport.netty.server.TcpServerTransport;
+import io.rsocket.transport.netty.server.WebsocketServerTransport;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
+import org.springframework.security.rsocket.core.PayloadSocketAcceptorInterceptor;
+import org.springframework.security.rsocket.metadata.SimpleAuthenticationEncoder;
+import org.springframework.security.rsocket.metadata.UsernamePasswordMetadata;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Starts {@link ServiceApplication} in-process and exposes its {@code RSocketMessageHandler} over
+ * the requested transport, with or without the {@link PayloadSocketAcceptorInterceptor} chain.
+ */
+class GreetingsService implements AutoCloseable {
+
+    static final String TCP = "tcp";
+    static final String WEBSOCKET = "websocket";
+    static final String LOCAL = "local";
+
+    private static final ParameterizedTypeReference<List<GreetingResponse>> GREETING_BATCH = new ParameterizedTypeReference<>() {
+    };
+
+    private final UsernamePasswordMetadata credentials = new UsernamePasswordMetadata("jlong", "pw");
+    private final MimeType mimeType = MimeTypeUtils.parseMimeType(WellKnownMimeType.MESSAGE_RSOCKET_AUTHENTICATION.getString());
+
+    private final ConfigurableApplicationContext context;
+    private final RSocketStrategies strategies;
+    private final boolean secured;
+    private final Closeable server;
+    private final ClientTransport clientTransport;
+
+    GreetingsService(String transport, boolean secured) {
+        this.secured = secured;
+        // none of the service's own servers are used, the benchmark binds its own below
+        this.context = new SpringApplicationBuilder(ServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.rsocket.server.port=0",
+                        "--spring.main.banner-mode=off", "--logging.level.root=warn");
+        this.strategies = this.context
+                .getBean(RSocketStrategies.class)
+                .mutate()
+                .encoder(new SimpleAuthenticationEncoder())
+                .build();
+
+        var server = RSocketServer.create(this.context.getBean(RSocketMessageHandler.class).responder());
+        if (secured) {
+            var security = this.context.getBean(PayloadSocketAcceptorInterceptor.class);
+            server.interceptors(registry -> registry.forSocketAcceptor(security));
+        }
+
+        switch (transport) {
+            case TCP:
+                CloseableChannel channel = server.bind(TcpServerTransport.create("localhost", 0)).block();
+                this.server = channel;
+                this.clientTransport = TcpClientTransport.create(channel.address());
+                break;
+            case WEBSOCKET:
+                CloseableChannel websocket = server.bind(WebsocketServerTransport.create("localhost", 0)).block();
+                this.server = websocket;
+                this.clientTransport = WebsocketClientTransport.create(websocket.address());
+                break;
+            case LOCAL:
+                var name = "greetings-" + UUID.randomUUID();
+                this.server = server.bind(LocalServerTransport.create(name)).block();
+                this.clientTransport = LocalClientTransport.create(name);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown transport " + transport);
+        }
+    }
+
+    RSocketRequester connect() {
+        var builder = RSocketRequester
+                .builder()
+                .rsocketStrategies(this.strategies)
+                .rsocketConnector(connector -> connector.acceptor(
+                        RSocketMessageHandler.responder(this.strategies, new HealthyClient())));
+        if (this.secured) {
+            builder.setupMetadata(this.credentials, this.mimeType);
+        }
+        return builder.connect(this.clientTransport).block();
+    }
+
+    // unpaced, so the stream runs as fast as the benchmark requests elements
+    Flux<GreetingResponse> greetings(RSocketRequester requester, int count) {
+        return this.spec(requester, "greetings", new StreamOptions(count, 0L, 1, null, null))
+                .retrieveFlux(GreetingResponse.class);
+    }
+
+    // the same stream packed packSize greetings a payload, unpacked again here
+    Flux<GreetingResponse> batchedGreetings(RSocketRequester requester, int count, int packSize) {
+        return this.spec(requester, "greetings.batched", new StreamOptions(count, 0L, 1, packSize, null))
+                .retrieveFlux(GREETING_BATCH)
+                .flatMapIterable(Function.identity());
+    }
+
+    private RSocketRequester.RetrieveSpec spec(RSocketRequester requester, String route, StreamOptions options) {
+        var spec = requester
+                .route(route)
+                .metadata(options, StreamOptions.MIME_TYPE);
+        if (this.secured) {
+            spec.metadata(this.credentials, this.mimeType);
+        }
+        return spec.data(new GreetingRequest("jlong"));
+    }
+
+    @Override
+    public void close() {
+        this.server.dispose();
+        this.context.close();
+    }
+
+    // never reports itself unhealthy, so the service's reverse health stream stays quiet
+    static class HealthyClient {
+
+        @MessageMapping("health")
+        Flux<ClientHealthState> health() {
+            return Flux.never();
+        }
+    }
+}
+
+// DTO
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+class GreetingResponse {
+    private String message;
+}
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+class GreetingRequest {
+    private String name;
+}
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+class ClientHealthState {
+    private boolean healthy;
+}
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+class StreamOptions {
+
+    static final MimeType MIME_TYPE = MimeTypeUtils.parseMimeType("application/vnd.greetings.stream+json");
+
+    private Integer count;
+    private Long intervalMillis;
+    private Integer batchSize;
+    private Integer packSize;
+    private Long lingerMillis;
+}
@@ -1,41 +1,55 @@
 package com.example.client;
 
+import com.example.common.LoggingSpanExporter;
+import com.example.common.PayloadCompression;
+import com.example.common.TracingInterceptor;
 import io.rsocket.SocketAcceptor;
+import io.rsocket.core.Resume;
 import io.rsocket.metadata.WellKnownMimeType;
+import io.rsocket.resume.InMemoryResumableFramesStore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.SneakyThrows;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.rsocket.messaging.RSocketStrategiesCustomizer;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Bean;
-import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.messaging.rsocket.RSocketConnectorConfigurer;
 import org.springframework.messaging.rsocket.RSocketRequester;
 import org.springframework.messaging.rsocket.RSocketStrategies;
 import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
-import org.springframework.security.rsocket.metadata.SimpleAuthenticationEncoder;
 import org.springframework.security.rsocket.metadata.UsernamePasswordMetadata;
-import org.springframework.stereotype.Controller;
 import org.springframework.util.MimeType;
 import org.springframework.util.MimeTypeUtils;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
-import java.time.Duration;
-import java.util.stream.Stream;
+import java.util.List;
+import java.util.function.Function;
 
 @SpringBootApplication
+@EnableConfigurationProperties({RSocketClientProperties.class, GreetingsClientProperties.class})
 public class ClientApplication {
 
+    private static final ParameterizedTypeReference<List<GreetingResponse>> GREETING_BATCH = new ParameterizedTypeReference<>() {
+    };
+
     private final UsernamePasswordMetadata credentials = new UsernamePasswordMetadata("jlong", "pw");
-    private final MimeType mimeType = MimeTypeUtils.parseMimeType(WellKnownMimeType.MESSAGE_RSOCKET_AUTHENTICATION.getString());
 
     @Bean
     RSocketStrategiesCustomizer strategiesCustomizer() {
-        return strategies -> strategies.encoder(new SimpleAuthenticationEncoder());
+        return SimpleAuthentication::configure;
+    }
+
+    @Bean
+    HealthController healthController(GreetingsClientProperties properties) {
+        return new HealthController(properties.getHealthFailureProbability());
     }
 
     @Bean
@@ -45,27 +59,80 @@ public class ClientApplication {
         return RSocketMessageHandler.responder(strategies, controller);
     }
 
+    @Bean(destroyMethod = "dispose")
+    LoadBalancedRSocket loadBalancedRSocket(
+            SocketAcceptor acceptor,
+            RSocketRequester.Builder builder,
+            ObjectProvider<RSocketConnectorConfigurer> configurers,
+            RSocketClientProperties properties) {
+        builder
+                .dataMimeType(MimeTypeUtils.parseMimeType(properties.getDataMimeType()))
+                .setupMetadata(this.credentials, SimpleAuthentication.MIME_TYPE)
+                .rsocketConnector(connector -> {
+                    connector.acceptor(acceptor).fragment(properties.getFragmentSize());
+                    if (properties.isCompression()) {
+                        connector.interceptors(registry -> registry.forRequester(PayloadCompression.inflating(properties.getMaxInflatedSize())));
+                    }
+                    if (properties.getResume().isEnabled()) {
+                        connector.resume(this.resume(properties));
+                    }
+                    if (properties.getTracing().isEnabled()) {
+                        var tracing = new TracingInterceptor("client", properties.getTracing().getSampleRate(), new LoggingSpanExporter());
+                        connector.interceptors(registry -> registry
+                                .forRequester(tracing::requester)
+                                .forResponder(tracing::responder));
+                    }
+                    configurers.orderedStream().forEach(configurer -> configurer.configure(connector));
+                });
+        if (properties.isCompression()) {
+            builder.setupMetadata(PayloadCompression.DEFLATE, PayloadCompression.MIME);
+        }
+        return new LoadBalancedRSocket(properties, target -> builder
+                .connectTcp(target.getHost(), target.getPort())
+                .map(RSocketRequester::rsocket));
+    }
+
+    private Resume resume(RSocketClientProperties properties) {
+        var resume = properties.getResume();
+        return new Resume()
+                .sessionDuration(resume.getSessionDuration())
+                .cleanupStoreOnKeepAlive()
+                .storeFactory(token -> new InMemoryResumableFramesStore("client", resume.getMaxBufferSize()))
+                .retry(Retry
+                        .backoff(Long.MAX_VALUE, properties.getMinReconnectBackoff())
+                        .maxBackoff(properties.getMaxReconnectBackoff()));
+    }
+
     @Bean
     RSocketRequester rSocketRequester(
-            SocketAcceptor acceptor,
-            RSocketRequester.Builder builder) {
-        return builder
-                .setupMetadata(this.credentials, this.mimeType)
-                .rsocketConnector(connector -> connector.acceptor(acceptor))
-                .connectTcp("localhost", 8888)
-                .block();
+            LoadBalancedRSocket rsocket,
+            RSocketStrategies strategies,
+            RSocketClientProperties properties) {
+        return RSocketRequester.wrap(rsocket,
+                MimeTypeUtils.parseMimeType(properties.getDataMimeType()),
+                MimeTypeUtils.parseMimeType(WellKnownMimeType.MESSAGE_RSOCKET_COMPOSITE_METADATA.getString()),
+                strategies);
     }
 
     @Bean
-    ApplicationListener<ApplicationReadyEvent> client(RSocketRequester client) {
-        return args ->
-                client
-                        .route("greetings")
-                        .metadata(this.credentials, this.mimeType)
-                        .data(Mono.empty())
-//                        .data(new GreetingRequest("Alibaba"))
-                        .retrieveFlux(GreetingResponse.class)
-                        .subscribe(System.out::println);
+    ApplicationListener<ApplicationReadyEvent> client(RSocketRequester client, GreetingsClientProperties properties) {
+        return args -> {
+            var spec = client
+                    .route(properties.isBatched() ? "greetings.batched" : "greetings")
+                    .metadata(this.credentials, SimpleAuthentication.MIME_TYPE)
+                    .metadata(metadata -> {
+                        if (properties.getStream() != null) {
+                            metadata.metadata(properties.getStream(), StreamOptions.MIME_TYPE);
+                        }
+                    })
+                    .data(Mono.empty());
+//                    .data(new GreetingRequest("Alibaba"));
+            // either way the subscriber sees one greeting at a time
+            var greetings = properties.isBatched() ?
+                    spec.retrieveFlux(GREETING_BATCH).flatMapIterable(Function.identity()) :
+                    spec.retrieveFlux(GreetingResponse.class);
+            greetings.subscribe(System.out::println);
+        };
     }
 
     @SneakyThrows
@@ -76,16 +143,6 @@ public class ClientApplication {
 
 }
 
-@Controller
-class HealthController {
-
-    @MessageMapping("health")
-    Flux<ClientHealthState> health() {
-        var stream = Stream.generate(() -> new ClientHealthState(Math.random() > .2));
-        return Flux.fromStream(stream).delayElements(Duration.ofSeconds(1));
-    }
-}
-
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -107,3 +164,17 @@ class GreetingResponse {
 class GreetingRequest {
     private String name;
 }
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+class StreamOptions {
+
+    static final MimeType MIME_TYPE = MimeTypeUtils.parseMimeType("application/vnd.greetings.stream+json");
+
+    private Integer count;
+    private Long intervalMillis;
+    private Integer batchSize;
+    private Integer packSize;
+    private Long lingerMillis;
+}
@@ -0,0 +1,18 @@
+package com.example.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("client.greetings")
+class GreetingsClientProperties {
+
+    // sent as metadata only when configured, otherwise the service's defaults apply
+    private StreamOptions stream;
+
+    // greetings.batched, the service packs many greetings a payload and they are unpacked here
+    private boolean batched = false;
+
+    // how often the health stream answered to the service reports this client unhealthy
+    private double healthFailureProbability = 0.2;
+}
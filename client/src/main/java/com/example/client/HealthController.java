@@ -0,0 +1,27 @@
+package com.example.client;
+
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+/**
+ * Answers the service's reverse {@code health} requests, once a second, unhealthy with the given
+ * probability. Public so the load generator can answer them the way this client does.
+ */
+public class HealthController {
+
+    private final double failureProbability;
+
+    public HealthController(double failureProbability) {
+        this.failureProbability = failureProbability;
+    }
+
+    @MessageMapping("health")
+    Flux<ClientHealthState> health() {
+        var stream = Stream.generate(() -> new ClientHealthState(ThreadLocalRandom.current().nextDouble() >= this.failureProbability));
+        return Flux.fromStream(stream).delayElements(Duration.ofSeconds(1));
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.client;
+
+import com.example.common.ReverseLeases;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.rsocket.RSocketConnectorConfigurer;
+
+// for a service with leases on, which then only admits as many requests per connection as its latest lease allows, and
+// leases have to go both ways for it to ask this client about its health
+@Configuration
+@ConditionalOnProperty("client.rsocket.lease")
+class LeaseConfiguration {
+
+    @Bean
+    RSocketConnectorConfigurer leaseConnectorConfigurer() {
+        return connector -> connector.lease(ReverseLeases::unlimited);
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.client;
+
+import io.netty.util.ReferenceCountUtil;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import lombok.extern.log4j.Log4j2;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.util.retry.Retry;
+
+import java.nio.channels.ClosedChannelException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Spreads requests over {@code connectionsPerTarget} connections to each configured target, skipping
+ * connections without lease and reconnecting closed ones.
+ */
+@Log4j2
+class LoadBalancedRSocket implements RSocket {
+
+    private final List<Member> members = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final RSocketClientProperties properties;
+    private final MonoProcessor<Void> onClose = MonoProcessor.create();
+
+    LoadBalancedRSocket(RSocketClientProperties properties,
+                        Function<RSocketClientProperties.Target, Mono<RSocket>> connector) {
+        this.properties = properties;
+        for (var target : properties.getTargets()) {
+            for (var i = 0; i < properties.getConnectionsPerTarget(); i++) {
+                this.members.add(new Member(target, Mono.defer(() -> connector.apply(target))));
+            }
+        }
+        this.members.forEach(Member::start);
+    }
+
+    @Override
+    public Mono<Void> fireAndForget(Payload payload) {
+        return this.acquire(payload).flatMap(member -> member.track(member.rsocket.fireAndForget(payload)));
+    }
+
+    @Override
+    public Mono<Payload> requestResponse(Payload payload) {
+        return this.acquire(payload).flatMap(member -> member.track(member.rsocket.requestResponse(payload)));
+    }
+
+    @Override
+    public Flux<Payload> requestStream(Payload payload) {
+        return this.acquire(payload).flatMapMany(member -> member.track(member.rsocket.requestStream(payload)));
+    }
+
+    @Override
+    public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
+        return this.acquire(null).flatMapMany(member -> member.track(member.rsocket.requestChannel(payloads)));
+    }
+
+    @Override
+    public Mono<Void> metadataPush(Payload payload) {
+        return this.acquire(payload).flatMap(member -> member.rsocket.metadataPush(payload));
+    }
+
+    @Override
+    public double availability() {
+        return this.members.stream().filter(Member::isAvailable).count() / (double) this.members.size();
+    }
+
+    @Override
+    public void dispose() {
+        this.members.forEach(Member::dispose);
+        this.onClose.onComplete();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return this.onClose.isTerminated();
+    }
+
+    @Override
+    public Mono<Void> onClose() {
+        return this.onClose;
+    }
+
+    private Mono<Member> acquire(Payload payload) {
+        return Mono
+                .fromSupplier(this::select)
+                .repeatWhenEmpty(attempts -> attempts.delayElements(this.properties.getMinReconnectBackoff()))
+                .timeout(this.properties.getAcquireTimeout(), Mono.error(() ->
+                        new TimeoutException("no connection available within " + this.properties.getAcquireTimeout())))
+                .doOnError(ex -> {
+                    if (payload != null) {
+                        ReferenceCountUtil.safeRelease(payload);
+                    }
+                });
+    }
+
+    private Member select() {
+        var available = new ArrayList<Member>(this.members.size());
+        for (var member : this.members) {
+            if (member.isAvailable()) {
+                available.add(member);
+            }
+        }
+        if (available.isEmpty()) {
+            return null;
+        }
+        if (available.size() == 1 || this.properties.getSelection() == RSocketClientProperties.Selection.ROUND_ROBIN) {
+            return available.get(Math.floorMod(this.next.getAndIncrement(), available.size()));
+        }
+        var random = ThreadLocalRandom.current();
+        var a = available.get(random.nextInt(available.size()));
+        var b = available.get(random.nextInt(available.size()));
+        return a.load() <= b.load() ? a : b;
+    }
+
+    private final class Member {
+
+        private final RSocketClientProperties.Target target;
+        private final Mono<RSocket> connect;
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile RSocket rsocket;
+        private Disposable connection;
+
+        Member(RSocketClientProperties.Target target, Mono<RSocket> connect) {
+            this.target = target;
+            this.connect = connect;
+        }
+
+        void start() {
+            var properties = LoadBalancedRSocket.this.properties;
+            this.connection = this.connect
+                    .doOnError(ex -> log.warn("could not connect to " + this.describe() + ": " + ex.getMessage()))
+                    .flatMap(rsocket -> {
+                        log.info("connected to " + this.describe());
+                        this.rsocket = rsocket;
+                        var connected = System.nanoTime();
+                        return rsocket
+                                .onClose()
+                                .onErrorResume(ex -> Mono.empty())
+                                .then(Mono.defer(() -> this.evict(Duration.ofNanos(System.nanoTime() - connected))));
+                    })
+                    // the backoff keeps growing over failed attempts and connections closed too soon alike,
+                    // a connection that lasted completes and the next one starts from a fresh backoff
+                    .retryWhen(Retry
+                            .backoff(Long.MAX_VALUE, properties.getMinReconnectBackoff())
+                            .maxBackoff(properties.getMaxReconnectBackoff()))
+                    .repeat(() -> !LoadBalancedRSocket.this.isDisposed())
+                    .subscribe();
+        }
+
+        private Mono<Void> evict(Duration uptime) {
+            log.info("evicting connection to " + this.describe() + " closed after " + uptime.toMillis() + "ms");
+            this.rsocket = null;
+            if (uptime.compareTo(LoadBalancedRSocket.this.properties.getMinUptime()) < 0) {
+                return Mono.error(new ClosedChannelException());
+            }
+            return Mono.empty();
+        }
+
+        boolean isAvailable() {
+            var rsocket = this.rsocket;
+            return rsocket != null && !rsocket.isDisposed() && rsocket.availability() > 0;
+        }
+
+        double load() {
+            return this.pending.get() / (double) Math.max(1, this.target.getWeight());
+        }
+
+        <T> Mono<T> track(Mono<T> request) {
+            return request
+                    .doOnSubscribe(s -> this.pending.incrementAndGet())
+                    .doFinally(signal -> this.pending.decrementAndGet());
+        }
+
+        <T> Flux<T> track(Flux<T> request) {
+            return request
+                    .doOnSubscribe(s -> this.pending.incrementAndGet())
+                    .doFinally(signal -> this.pending.decrementAndGet());
+        }
+
+        void dispose() {
+            if (this.connection != null) {
+                this.connection.dispose();
+            }
+            var rsocket = this.rsocket;
+            if (rsocket != null) {
+                rsocket.dispose();
+            }
+        }
+
+        private String describe() {
+            return this.target.getHost() + ':' + this.target.getPort();
+        }
+    }
+}
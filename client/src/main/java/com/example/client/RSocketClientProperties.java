@@ -0,0 +1,82 @@
+package com.example.client;
+
+import com.example.common.PayloadCompression;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties("client.rsocket")
+class RSocketClientProperties {
+
+    // application/cbor by default, application/json is what the service falls back to
+    private String dataMimeType = "application/cbor";
+
+    private List<Target> targets = new ArrayList<>(List.of(new Target()));
+
+    private int connectionsPerTarget = 1;
+
+    private Selection selection = Selection.LEAST_PENDING;
+
+    // how long a request waits for any connection in the pool to become available
+    private Duration acquireTimeout = Duration.ofSeconds(5);
+
+    private Duration minReconnectBackoff = Duration.ofMillis(500);
+
+    private Duration maxReconnectBackoff = Duration.ofSeconds(30);
+
+    // a connection closed any sooner counts as a failed attempt, the backoff only starts over after one that lasted
+    private Duration minUptime = Duration.ofSeconds(10);
+
+    // frames bigger than this are split, 0 turns fragmentation off
+    private int fragmentSize = 16_384;
+
+    // asks the service to deflate large responses, which are inflated again as they arrive
+    private boolean compression = false;
+
+    // a compressed response that inflates to more than this fails its request
+    private int maxInflatedSize = PayloadCompression.DEFAULT_MAX_INFLATED_SIZE;
+
+    private Resume resume = new Resume();
+
+    private Tracing tracing = new Tracing();
+
+    @Data
+    static class Target {
+
+        private String host = "localhost";
+
+        private int port = 8888;
+
+        private int weight = 1;
+    }
+
+    // a dropped connection is resumed within the session instead of restarting its streams
+    @Data
+    static class Resume {
+
+        private boolean enabled = true;
+
+        private Duration sessionDuration = Duration.ofMinutes(2);
+
+        // frames the service has not acknowledged yet, per connection
+        private int maxBufferSize = 1024 * 1024;
+    }
+
+    // trace context in the metadata of every request sent, and of the health requests answered
+    @Data
+    static class Tracing {
+
+        private boolean enabled = false;
+
+        // the fraction of the traces started here that are timed and exported
+        private double sampleRate = 0.01;
+    }
+
+    enum Selection {
+        ROUND_ROBIN, LEAST_PENDING
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.client;
+
+import io.rsocket.metadata.WellKnownMimeType;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.security.rsocket.metadata.SimpleAuthenticationEncoder;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * How this client authenticates: username and password as simple authentication metadata, in the
+ * SETUP frame and on each request. Public so the load generator authenticates the same way.
+ */
+public final class SimpleAuthentication {
+
+    public static final MimeType MIME_TYPE = MimeTypeUtils.parseMimeType(WellKnownMimeType.MESSAGE_RSOCKET_AUTHENTICATION.getString());
+
+    private SimpleAuthentication() {
+    }
+
+    public static void configure(RSocketStrategies.Builder strategies) {
+        strategies.encoder(new SimpleAuthenticationEncoder());
+    }
+}
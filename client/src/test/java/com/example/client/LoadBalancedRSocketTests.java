@@ -0,0 +1,121 @@
+package com.example.client;
+
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.util.DefaultPayload;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadBalancedRSocketTests {
+
+    private final Map<Integer, FakeRSocket> connections = new ConcurrentHashMap<>();
+
+    @Test
+    void roundRobinsAcrossEveryConnection() {
+        var pool = this.pool(RSocketClientProperties.Selection.ROUND_ROBIN);
+        for (var i = 0; i < 10; i++) {
+            StepVerifier.create(pool.requestResponse(DefaultPayload.create("hi"))).expectNextCount(1).verifyComplete();
+        }
+        assertThat(this.connections.get(1).requests).hasValue(5);
+        assertThat(this.connections.get(2).requests).hasValue(5);
+        pool.dispose();
+    }
+
+    @Test
+    void evictsClosedConnectionsAndReconnects() {
+        var pool = this.pool(RSocketClientProperties.Selection.LEAST_PENDING);
+        var closed = this.connections.get(1);
+        closed.dispose();
+        for (var i = 0; i < 4; i++) {
+            StepVerifier.create(pool.requestResponse(DefaultPayload.create("hi"))).expectNextCount(1).verifyComplete();
+        }
+        assertThat(closed.requests).hasValue(0);
+        assertThat(this.connections.get(1)).isNotSameAs(closed);
+        pool.dispose();
+    }
+
+    @Test
+    void backsOffFromAServiceThatClosesEveryConnectionRightAfterSetup() throws InterruptedException {
+        var properties = this.properties(RSocketClientProperties.Selection.ROUND_ROBIN);
+        properties.setMaxReconnectBackoff(Duration.ofMillis(100));
+        var attempts = new AtomicInteger();
+        var pool = new LoadBalancedRSocket(properties, target -> Mono.fromSupplier(() -> {
+            attempts.incrementAndGet();
+            var rsocket = new FakeRSocket();
+            rsocket.dispose();
+            return rsocket;
+        }));
+        Thread.sleep(500);
+        pool.dispose();
+        // two connections backing off from 10ms up to 100ms, where reconnecting right away would make thousands
+        assertThat(attempts.get()).isBetween(4, 40);
+    }
+
+    @Test
+    void failsWhenNothingIsAvailable() {
+        var properties = this.properties(RSocketClientProperties.Selection.ROUND_ROBIN);
+        properties.setAcquireTimeout(Duration.ofMillis(100));
+        var pool = new LoadBalancedRSocket(properties, target -> Mono.error(new IllegalStateException("down")));
+        StepVerifier.create(pool.requestResponse(DefaultPayload.create("hi"))).verifyError(TimeoutException.class);
+        pool.dispose();
+    }
+
+    private LoadBalancedRSocket pool(RSocketClientProperties.Selection selection) {
+        return new LoadBalancedRSocket(this.properties(selection), target -> Mono.fromSupplier(() -> {
+            var rsocket = new FakeRSocket();
+            this.connections.put(target.getPort(), rsocket);
+            return rsocket;
+        }));
+    }
+
+    private RSocketClientProperties properties(RSocketClientProperties.Selection selection) {
+        var one = new RSocketClientProperties.Target();
+        one.setPort(1);
+        var two = new RSocketClientProperties.Target();
+        two.setPort(2);
+        var properties = new RSocketClientProperties();
+        properties.setTargets(List.of(one, two));
+        properties.setSelection(selection);
+        properties.setMinReconnectBackoff(Duration.ofMillis(10));
+        return properties;
+    }
+
+    static class FakeRSocket implements RSocket {
+
+        final AtomicInteger requests = new AtomicInteger();
+
+        final MonoProcessor<Void> onClose = MonoProcessor.create();
+
+        @Override
+        public Mono<Payload> requestResponse(Payload payload) {
+            this.requests.incrementAndGet();
+            return Mono.just(payload);
+        }
+
+        @Override
+        public void dispose() {
+            this.onClose.onComplete();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return this.onClose.isTerminated();
+        }
+
+        @Override
+        public Mono<Void> onClose() {
+            return this.onClose;
+        }
+    }
+}
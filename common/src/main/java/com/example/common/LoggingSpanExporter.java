@@ -0,0 +1,12 @@
+package com.example.common;
+
+import lombok.extern.log4j.Log4j2;
+
+@Log4j2
+public class LoggingSpanExporter implements SpanExporter {
+
+    @Override
+    public void export(Span span) {
+        log.info(span);
+    }
+}
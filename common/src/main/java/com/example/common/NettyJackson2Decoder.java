@@ -0,0 +1,86 @@
+package com.example.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.netty.buffer.ByteBufInputStream;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.codec.Decoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads straight from the payload's {@link io.netty.buffer.ByteBuf} and releases it once the value
+ * is read, whether or not that succeeded.
+ */
+public class NettyJackson2Decoder implements Decoder<Object> {
+
+    private final ObjectMapper mapper;
+    private final MimeType mimeType;
+    private final Set<Class<?>> types;
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    public NettyJackson2Decoder(ObjectMapper mapper, MimeType mimeType, Set<Class<?>> types) {
+        this.mapper = mapper;
+        this.mimeType = mimeType;
+        this.types = types;
+    }
+
+    @Override
+    public boolean canDecode(ResolvableType elementType, @Nullable MimeType mimeType) {
+        return this.types.contains(elementType.toClass()) && (mimeType == null || this.mimeType.isCompatibleWith(mimeType));
+    }
+
+    // every RSocket payload carries exactly one value
+    @Override
+    public Flux<Object> decode(Publisher<DataBuffer> inputStream, ResolvableType elementType,
+                               @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+        return Flux.from(inputStream).map(buffer -> this.decode(buffer, elementType, mimeType, hints));
+    }
+
+    @Override
+    public Mono<Object> decodeToMono(Publisher<DataBuffer> inputStream, ResolvableType elementType,
+                                     @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+        return DataBufferUtils.join(inputStream).map(buffer -> this.decode(buffer, elementType, mimeType, hints));
+    }
+
+    @Override
+    public Object decode(DataBuffer buffer, ResolvableType targetType,
+                         @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) throws DecodingException {
+        var reader = this.readers.computeIfAbsent(targetType.toClass(), this.mapper::readerFor);
+        try {
+            if (buffer instanceof NettyDataBuffer) {
+                var byteBuf = ((NettyDataBuffer) buffer).getNativeBuffer();
+                if (byteBuf.hasArray()) {
+                    return reader.readValue(byteBuf.array(), byteBuf.arrayOffset() + byteBuf.readerIndex(), byteBuf.readableBytes());
+                }
+                return reader.readValue((InputStream) new ByteBufInputStream(byteBuf));
+            }
+            return reader.readValue(buffer.asInputStream());
+        }
+        catch (IOException ex) {
+            throw new DecodingException("Could not read " + targetType, ex);
+        }
+        finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    @Override
+    public List<MimeType> getDecodableMimeTypes() {
+        return List.of(this.mimeType);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.netty.buffer.ByteBufOutputStream;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serializes straight into a pooled {@link io.netty.buffer.ByteBuf} instead of going through the
+ * intermediate {@code byte[]} that Spring's Jackson encoders copy from.
+ */
+public class NettyJackson2Encoder implements Encoder<Object> {
+
+    private final ObjectMapper mapper;
+    private final MimeType mimeType;
+    private final Set<Class<?>> types;
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public NettyJackson2Encoder(ObjectMapper mapper, MimeType mimeType, Set<Class<?>> types) {
+        this.mapper = mapper;
+        this.mimeType = mimeType;
+        this.types = types;
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
+        return this.types.contains(elementType.toClass()) && (mimeType == null || this.mimeType.isCompatibleWith(mimeType));
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                   ResolvableType elementType, @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+        return Flux.from(inputStream).map(value -> this.encodeValue(value, bufferFactory, elementType, mimeType, hints));
+    }
+
+    @Override
+    public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory,
+                                  ResolvableType valueType, @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+        var writer = this.writers.computeIfAbsent(value.getClass(), this.mapper::writerFor);
+        var buffer = bufferFactory.allocateBuffer();
+        var release = true;
+        try {
+            var out = buffer instanceof NettyDataBuffer ?
+                    new ByteBufOutputStream(((NettyDataBuffer) buffer).getNativeBuffer()) :
+                    buffer.asOutputStream();
+            writer.writeValue(out, value);
+            release = false;
+            return buffer;
+        }
+        catch (IOException ex) {
+            throw new EncodingException("Could not write " + value.getClass().getSimpleName(), ex);
+        }
+        finally {
+            if (release) {
+                DataBufferUtils.release(buffer);
+            }
+        }
+    }
+
+    @Override
+    public List<MimeType> getEncodableMimeTypes() {
+        return List.of(this.mimeType);
+    }
+}
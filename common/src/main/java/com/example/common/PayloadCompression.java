@@ -0,0 +1,190 @@
+package com.example.common;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.ByteBufUtil;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.exceptions.RejectedException;
+import io.rsocket.metadata.CompositeMetadata;
+import io.rsocket.metadata.CompositeMetadataCodec;
+import io.rsocket.plugins.RSocketInterceptor;
+import io.rsocket.util.ByteBufPayload;
+import io.rsocket.util.RSocketProxy;
+import org.reactivestreams.Publisher;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Deflates payload data above a size threshold, marking what it compressed with a {@value #MIME_TYPE}
+ * metadata entry so peers only inflate that.
+ */
+public class PayloadCompression {
+
+    public static final String MIME_TYPE = "message/x.greetings.compression";
+    public static final MimeType MIME = MimeTypeUtils.parseMimeType(MIME_TYPE);
+    public static final String DEFLATE = "deflate";
+
+    // the most data a frame can carry whole, a peer has no business inflating to more
+    public static final int DEFAULT_MAX_INFLATED_SIZE = 16_777_215;
+
+    private static final ByteBufAllocator ALLOCATOR = ByteBufAllocator.DEFAULT;
+
+    // one per event loop thread rather than one (and its native buffers) per payload
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(Inflater::new);
+
+    private final int threshold;
+    private final int maxInflatedSize;
+    private final ThreadLocal<Deflater> deflaters;
+
+    public PayloadCompression(int threshold, int level, int maxInflatedSize) {
+        this.threshold = threshold;
+        this.maxInflatedSize = maxInflatedSize;
+        this.deflaters = ThreadLocal.withInitial(() -> new Deflater(level));
+    }
+
+    // whether SETUP (or any other) metadata lists deflate as an encoding the peer understands
+    public static boolean isDeflate(Payload payload) {
+        if (!payload.hasMetadata()) {
+            return false;
+        }
+        try {
+            for (var entry : new CompositeMetadata(payload.sliceMetadata(), false)) {
+                if (MIME_TYPE.equals(entry.getMimeType())) {
+                    for (var encoding : entry.getContent().toString(StandardCharsets.UTF_8).split(",")) {
+                        if (DEFLATE.equals(encoding.trim())) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        catch (RuntimeException ex) {
+            // not composite metadata
+        }
+        return false;
+    }
+
+    // inflates what the peer compressed, compresses what goes back to it
+    public RSocket compressing(RSocket rsocket) {
+        var max = this.maxInflatedSize;
+        return new RSocketProxy(rsocket) {
+
+            @Override
+            public Mono<Void> fireAndForget(Payload payload) {
+                return Mono.defer(() -> super.fireAndForget(inflate(payload, max)));
+            }
+
+            @Override
+            public Mono<Payload> requestResponse(Payload payload) {
+                return Mono.defer(() -> super.requestResponse(inflate(payload, max))).map(PayloadCompression.this::compress);
+            }
+
+            @Override
+            public Flux<Payload> requestStream(Payload payload) {
+                return Flux.defer(() -> super.requestStream(inflate(payload, max))).map(PayloadCompression.this::compress);
+            }
+
+            @Override
+            public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
+                return super.requestChannel(Flux.from(payloads).map(payload -> inflate(payload, max)))
+                        .map(PayloadCompression.this::compress);
+            }
+        };
+    }
+
+    // for a requester that does not compress what it sends
+    public static RSocketInterceptor inflating(int maxInflatedSize) {
+        return rsocket -> new RSocketProxy(rsocket) {
+
+            @Override
+            public Mono<Payload> requestResponse(Payload payload) {
+                return super.requestResponse(payload).map(response -> inflate(response, maxInflatedSize));
+            }
+
+            @Override
+            public Flux<Payload> requestStream(Payload payload) {
+                return super.requestStream(payload).map(response -> inflate(response, maxInflatedSize));
+            }
+
+            @Override
+            public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
+                return super.requestChannel(payloads).map(response -> inflate(response, maxInflatedSize));
+            }
+        };
+    }
+
+    public Payload compress(Payload payload) {
+        var data = payload.sliceData();
+        if (data.readableBytes() < this.threshold) {
+            return payload;
+        }
+        var compressed = ALLOCATOR.buffer(data.readableBytes() / 2);
+        var deflater = this.deflaters.get();
+        // closing the stream finishes the deflater it was given but does not end it
+        try (var out = new DeflaterOutputStream(new ByteBufOutputStream(compressed), deflater)) {
+            data.getBytes(data.readerIndex(), out, data.readableBytes());
+        }
+        catch (IOException ex) {
+            compressed.release();
+            throw new UncheckedIOException(ex);
+        }
+        finally {
+            deflater.reset();
+        }
+        // incompressible, not worth making the peer inflate it
+        if (compressed.readableBytes() >= data.readableBytes()) {
+            compressed.release();
+            return payload;
+        }
+        var metadata = ALLOCATOR.compositeBuffer();
+        if (payload.hasMetadata()) {
+            metadata.addComponent(true, payload.sliceMetadata().retain());
+        }
+        CompositeMetadataCodec.encodeAndAddMetadata(metadata, ALLOCATOR, MIME_TYPE,
+                ByteBufUtil.writeUtf8(ALLOCATOR, DEFLATE));
+        payload.release();
+        return ByteBufPayload.create(compressed, metadata);
+    }
+
+    // a payload that would inflate past the cap is released and rejected rather than read on
+    public static Payload inflate(Payload payload, int maxInflatedSize) {
+        if (!isDeflate(payload)) {
+            return payload;
+        }
+        var data = payload.sliceData();
+        ByteBuf inflated = ALLOCATOR.buffer(Math.min(data.readableBytes() * 4, maxInflatedSize));
+        var inflater = INFLATERS.get();
+        try (var in = new InflaterInputStream(new ByteBufInputStream(data), inflater)) {
+            while (inflated.writeBytes(in, 8_192) != -1) {
+                if (inflated.readableBytes() > maxInflatedSize) {
+                    inflated.release();
+                    payload.release();
+                    throw new RejectedException("payload inflates to more than " + maxInflatedSize + " bytes");
+                }
+            }
+        }
+        catch (IOException ex) {
+            inflated.release();
+            throw new UncheckedIOException(ex);
+        }
+        finally {
+            inflater.reset();
+        }
+        var metadata = payload.sliceMetadata().retain();
+        payload.release();
+        return ByteBufPayload.create(inflated, metadata);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.common;
+
+import io.rsocket.lease.Lease;
+import io.rsocket.lease.LeaseStats;
+import io.rsocket.lease.Leases;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+/**
+ * The leases a peer of the service grants it in return, for the requests the service sends the peer.
+ */
+public final class ReverseLeases {
+
+    private static final Duration TIME_TO_LIVE = Duration.ofSeconds(30);
+
+    // well inside the time to live, so the service is never left without a lease
+    private static final Duration REFRESH_INTERVAL = Duration.ofSeconds(10);
+
+    private ReverseLeases() {
+    }
+
+    // a peer only answers health, the service is not held to any number of requests
+    public static Leases<LeaseStats> unlimited() {
+        return Leases.<LeaseStats>create().sender(stats -> Flux
+                .interval(Duration.ZERO, REFRESH_INTERVAL)
+                .map(tick -> Lease.create((int) TIME_TO_LIVE.toMillis(), Integer.MAX_VALUE)));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.common;
+
+import io.rsocket.Payload;
+import io.rsocket.metadata.CompositeMetadata;
+import io.rsocket.metadata.RoutingMetadata;
+import io.rsocket.metadata.WellKnownMimeType;
+
+/**
+ * Reads the route out of a request's composite metadata without consuming it, for the
+ * interceptors that see a request before {@code RSocketMessageHandler} or the requester does.
+ */
+public abstract class Routes {
+
+    public static final String UNKNOWN = "unknown";
+
+    private static final String ROUTING = WellKnownMimeType.MESSAGE_RSOCKET_ROUTING.getString();
+
+    /**
+     * Reads the route of a request, which is only valid until the request is handed on: whoever
+     * handles it releases the payload, so an interceptor reads what it needs before delegating.
+     */
+    public static String of(Payload payload) {
+        if (payload == null || !payload.hasMetadata()) {
+            return UNKNOWN;
+        }
+        try {
+            for (var entry : new CompositeMetadata(payload.sliceMetadata(), false)) {
+                if (ROUTING.equals(entry.getMimeType())) {
+                    var routes = new RoutingMetadata(entry.getContent()).iterator();
+                    return routes.hasNext() ? routes.next() : UNKNOWN;
+                }
+            }
+        }
+        catch (RuntimeException ex) {
+            // not composite metadata, the handler will reject it anyway
+        }
+        return UNKNOWN;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One hop of a trace as it finished: a request this peer answered ({@link Kind#SERVER}) or sent
+ * ({@link Kind#CLIENT}), named after its route. Ids are hex, as Zipkin writes them.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Span {
+
+    private String traceId;
+    private String spanId;
+    private String parentId;
+    private String name;
+    private Kind kind;
+    private String service;
+    private long startMicros;
+    private long durationMicros;
+    // onComplete, onError or cancel
+    private String outcome;
+
+    public enum Kind {
+        CLIENT, SERVER
+    }
+}
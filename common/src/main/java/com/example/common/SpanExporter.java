@@ -0,0 +1,11 @@
+package com.example.common;
+
+/**
+ * Where finished, sampled spans go. Called on the thread the span finished on, so it should not
+ * block.
+ */
+@FunctionalInterface
+public interface SpanExporter {
+
+    void export(Span span);
+}
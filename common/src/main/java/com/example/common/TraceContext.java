@@ -0,0 +1,128 @@
+package com.example.common;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.rsocket.Payload;
+import io.rsocket.metadata.CompositeMetadata;
+import io.rsocket.metadata.CompositeMetadataCodec;
+import io.rsocket.metadata.TracingMetadataCodec;
+import io.rsocket.metadata.WellKnownMimeType;
+import io.rsocket.util.ByteBufPayload;
+import org.springframework.lang.Nullable;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The trace a request belongs to and its span within it, carried from peer to peer as a
+ * {@code message/x.rsocket.tracing-zipkin.v0} composite metadata entry.
+ */
+public final class TraceContext {
+
+    public static final String MIME_TYPE = WellKnownMimeType.MESSAGE_RSOCKET_TRACING_ZIPKIN.getString();
+
+    public static final TraceContext NOT_SAMPLED = new TraceContext(0, 0, 0, 0, false);
+
+    private static final ByteBufAllocator ALLOCATOR = ByteBufAllocator.DEFAULT;
+
+    final long traceIdHigh;
+    final long traceId;
+    final long spanId;
+    // zero for the span a trace starts with
+    final long parentId;
+    final boolean sampled;
+
+    private TraceContext(long traceIdHigh, long traceId, long spanId, long parentId, boolean sampled) {
+        this.traceIdHigh = traceIdHigh;
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentId = parentId;
+        this.sampled = sampled;
+    }
+
+    public static TraceContext root(double sampleRate) {
+        var random = ThreadLocalRandom.current();
+        if (random.nextDouble() >= sampleRate) {
+            return NOT_SAMPLED;
+        }
+        return new TraceContext(random.nextLong(), random.nextLong(), id(), 0, true);
+    }
+
+    public TraceContext child() {
+        return this.sampled ? new TraceContext(this.traceIdHigh, this.traceId, id(), this.spanId, true) : this;
+    }
+
+    // what the payload's sender decided, null if it sent no decision
+    @Nullable
+    public static TraceContext of(Payload payload) {
+        if (!payload.hasMetadata()) {
+            return null;
+        }
+        try {
+            for (var entry : new CompositeMetadata(payload.sliceMetadata(), false)) {
+                if (MIME_TYPE.equals(entry.getMimeType())) {
+                    var tracing = TracingMetadataCodec.decode(entry.getContent());
+                    if (!tracing.isDecided()) {
+                        return null;
+                    }
+                    if (!tracing.isSampled() && !tracing.isDebug()) {
+                        return NOT_SAMPLED;
+                    }
+                    return tracing.isEmpty() ? root(1) :
+                            new TraceContext(tracing.traceIdHigh(), tracing.traceId(), tracing.spanId(), tracing.parentId(), true);
+                }
+            }
+        }
+        catch (RuntimeException ex) {
+            // not composite metadata, traced as if nothing was sent
+        }
+        return null;
+    }
+
+    // the payload with this context added to its metadata, the payload itself is released
+    public Payload inject(Payload payload) {
+        var metadata = ALLOCATOR.compositeBuffer();
+        if (payload.hasMetadata()) {
+            metadata.addComponent(true, payload.sliceMetadata().retain());
+        }
+        CompositeMetadataCodec.encodeAndAddMetadata(metadata, ALLOCATOR, WellKnownMimeType.MESSAGE_RSOCKET_TRACING_ZIPKIN, this.encode());
+        var injected = ByteBufPayload.create(payload.sliceData().retain(), metadata);
+        payload.release();
+        return injected;
+    }
+
+    private ByteBuf encode() {
+        if (!this.sampled) {
+            return TracingMetadataCodec.encodeEmpty(ALLOCATOR, TracingMetadataCodec.Flags.NOT_SAMPLE);
+        }
+        return this.parentId == 0 ?
+                TracingMetadataCodec.encode128(ALLOCATOR, this.traceIdHigh, this.traceId, this.spanId, TracingMetadataCodec.Flags.SAMPLE) :
+                TracingMetadataCodec.encode128(ALLOCATOR, this.traceIdHigh, this.traceId, this.spanId, this.parentId, TracingMetadataCodec.Flags.SAMPLE);
+    }
+
+    public String traceIdString() {
+        return hex(this.traceIdHigh) + hex(this.traceId);
+    }
+
+    public String spanIdString() {
+        return hex(this.spanId);
+    }
+
+    @Nullable
+    public String parentIdString() {
+        return this.parentId == 0 ? null : hex(this.parentId);
+    }
+
+    private static String hex(long id) {
+        return String.format("%016x", id);
+    }
+
+    // zero stands for no id
+    private static long id() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        }
+        while (id == 0);
+        return id;
+    }
+}
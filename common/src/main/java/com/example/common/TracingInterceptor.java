@@ -0,0 +1,153 @@
+package com.example.common;
+
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.util.RSocketProxy;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.util.context.Context;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Traces the requests a peer answers and the requests it sends, joining the trace the sender put in
+ * the request's metadata.
+ */
+public class TracingInterceptor {
+
+    private final String service;
+    private final double sampleRate;
+    private final SpanExporter exporter;
+
+    public TracingInterceptor(String service, double sampleRate, SpanExporter exporter) {
+        this.service = service;
+        this.sampleRate = sampleRate;
+        this.exporter = exporter;
+    }
+
+    public RSocket responder(RSocket rsocket) {
+        return new RSocketProxy(rsocket) {
+
+            @Override
+            public Mono<Void> fireAndForget(Payload payload) {
+                var route = Routes.of(payload);
+                return traced(serverSpan(payload), route, Span.Kind.SERVER, super.fireAndForget(payload));
+            }
+
+            @Override
+            public Mono<Payload> requestResponse(Payload payload) {
+                var route = Routes.of(payload);
+                return traced(serverSpan(payload), route, Span.Kind.SERVER, super.requestResponse(payload));
+            }
+
+            @Override
+            public Flux<Payload> requestStream(Payload payload) {
+                var route = Routes.of(payload);
+                return traced(serverSpan(payload), route, Span.Kind.SERVER, super.requestStream(payload));
+            }
+
+            @Override
+            public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
+                return Flux.from(payloads).switchOnFirst((first, all) -> {
+                    if (!first.hasValue()) {
+                        return super.requestChannel(all);
+                    }
+                    var route = Routes.of(first.get());
+                    return traced(serverSpan(first.get()), route, Span.Kind.SERVER, super.requestChannel(all));
+                });
+            }
+        };
+    }
+
+    public RSocket requester(RSocket rsocket) {
+        return new RSocketProxy(rsocket) {
+
+            @Override
+            public Mono<Void> fireAndForget(Payload payload) {
+                return Mono.deferWithContext(context -> {
+                    var route = Routes.of(payload);
+                    var span = clientSpan(context);
+                    return traced(span, route, Span.Kind.CLIENT, super.fireAndForget(span.inject(payload)));
+                });
+            }
+
+            @Override
+            public Mono<Payload> requestResponse(Payload payload) {
+                return Mono.deferWithContext(context -> {
+                    var route = Routes.of(payload);
+                    var span = clientSpan(context);
+                    return traced(span, route, Span.Kind.CLIENT, super.requestResponse(span.inject(payload)));
+                });
+            }
+
+            @Override
+            public Flux<Payload> requestStream(Payload payload) {
+                return Flux.deferWithContext(context -> {
+                    var route = Routes.of(payload);
+                    var span = clientSpan(context);
+                    return traced(span, route, Span.Kind.CLIENT, super.requestStream(span.inject(payload)));
+                });
+            }
+
+            // only the first payload, which carries the route, carries the context
+            @Override
+            public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
+                return Flux.deferWithContext(context -> Flux.from(payloads).switchOnFirst((first, all) -> {
+                    if (!first.hasValue()) {
+                        return super.requestChannel(all);
+                    }
+                    var head = first.get();
+                    var route = Routes.of(head);
+                    var span = clientSpan(context);
+                    return traced(span, route, Span.Kind.CLIENT, super.requestChannel(all.map(payload -> payload == head ? span.inject(payload) : payload)));
+                }));
+            }
+        };
+    }
+
+    private TraceContext serverSpan(Payload payload) {
+        var sent = TraceContext.of(payload);
+        return sent == null ? TraceContext.root(this.sampleRate) : sent.child();
+    }
+
+    private TraceContext clientSpan(Context context) {
+        return context
+                .<TraceContext>getOrEmpty(TraceContext.class)
+                .map(TraceContext::child)
+                .orElseGet(() -> TraceContext.root(this.sampleRate));
+    }
+
+    private <T> Mono<T> traced(TraceContext span, String route, Span.Kind kind, Mono<T> source) {
+        if (!span.sampled) {
+            return source.subscriberContext(Context.of(TraceContext.class, span));
+        }
+        return Mono
+                .defer(() -> {
+                    var startMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+                    var startNanos = System.nanoTime();
+                    return source.doFinally(signal -> this.finish(span, route, kind, startMicros, startNanos, signal));
+                })
+                .subscriberContext(Context.of(TraceContext.class, span));
+    }
+
+    private <T> Flux<T> traced(TraceContext span, String route, Span.Kind kind, Flux<T> source) {
+        if (!span.sampled) {
+            return source.subscriberContext(Context.of(TraceContext.class, span));
+        }
+        return Flux
+                .defer(() -> {
+                    var startMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+                    var startNanos = System.nanoTime();
+                    return source.doFinally(signal -> this.finish(span, route, kind, startMicros, startNanos, signal));
+                })
+                .subscriberContext(Context.of(TraceContext.class, span));
+    }
+
+    private void finish(TraceContext span, String route, Span.Kind kind, long startMicros, long startNanos, SignalType signal) {
+        var durationMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        this.exporter.export(new Span(span.traceIdString(), span.spanIdString(), span.parentIdString(), route, kind,
+                this.service, startMicros, durationMicros, signal.toString()));
+    }
+}
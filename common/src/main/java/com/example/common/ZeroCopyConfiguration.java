@@ -0,0 +1,55 @@
+package com.example.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.rsocket.frame.decoder.PayloadDecoder;
+import org.springframework.boot.rsocket.messaging.RSocketStrategiesCustomizer;
+import org.springframework.boot.rsocket.server.RSocketServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.rsocket.RSocketConnectorConfigurer;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.Set;
+
+/**
+ * The zero-copy payload path, for an application's own configuration to extend with the DTO types
+ * it reads and writes straight from the frame's {@link io.netty.buffer.ByteBuf}.
+ */
+public abstract class ZeroCopyConfiguration {
+
+    private static final MimeType CBOR = MimeTypeUtils.parseMimeType("application/cbor");
+
+    private final Set<Class<?>> types;
+
+    protected ZeroCopyConfiguration(Class<?>... types) {
+        this.types = Set.of(types);
+    }
+
+    // keeps the frame's ByteBuf instead of copying the payload out of it, accepted connections and
+    // those made through the requester builder alike
+    @Bean
+    public RSocketServerCustomizer zeroCopyServerCustomizer() {
+        return server -> server.payloadDecoder(PayloadDecoder.ZERO_COPY);
+    }
+
+    @Bean
+    public RSocketConnectorConfigurer zeroCopyConnectorConfigurer() {
+        return connector -> connector.payloadDecoder(PayloadDecoder.ZERO_COPY);
+    }
+
+    // ahead of Boot's Jackson codecs, which still handle every other type
+    @Bean
+    public RSocketStrategiesCustomizer zeroCopyStrategiesCustomizer(ObjectMapper json) {
+        var cbor = Jackson2ObjectMapperBuilder.cbor().build();
+        return strategies -> strategies
+                .encoders(encoders -> {
+                    encoders.add(0, new NettyJackson2Encoder(json, MimeTypeUtils.APPLICATION_JSON, this.types));
+                    encoders.add(0, new NettyJackson2Encoder(cbor, CBOR, this.types));
+                })
+                .decoders(decoders -> {
+                    decoders.add(0, new NettyJackson2Decoder(json, MimeTypeUtils.APPLICATION_JSON, this.types));
+                    decoders.add(0, new NettyJackson2Decoder(cbor, CBOR, this.types));
+                });
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.util.ResourceLeakDetector;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NettyJackson2CodecTests {
+
+    private static ResourceLeakDetector.Level level;
+
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(new PooledByteBufAllocator(true));
+
+    private final Set<Class<?>> types = Set.of(Greeting.class);
+
+    private final NettyJackson2Encoder encoder = new NettyJackson2Encoder(new ObjectMapper(), MimeTypeUtils.APPLICATION_JSON, this.types);
+
+    private final NettyJackson2Decoder decoder = new NettyJackson2Decoder(new ObjectMapper(), MimeTypeUtils.APPLICATION_JSON, this.types);
+
+    @BeforeAll
+    static void paranoid() {
+        level = ResourceLeakDetector.getLevel();
+        ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.PARANOID);
+    }
+
+    @AfterAll
+    static void restore() {
+        ResourceLeakDetector.setLevel(level);
+    }
+
+    @Test
+    void roundTripsThroughAPooledDirectBuffer() {
+        var type = ResolvableType.forClass(Greeting.class);
+        var buffer = (NettyDataBuffer) this.encoder.encodeValue(
+                new Greeting("ni hao jlong"), this.bufferFactory, type, MimeTypeUtils.APPLICATION_JSON, Collections.emptyMap());
+        var byteBuf = buffer.getNativeBuffer();
+        assertThat(byteBuf.isDirect()).isTrue();
+        assertThat(byteBuf.refCnt()).isEqualTo(1);
+
+        var decoded = this.decoder.decode(buffer, type, MimeTypeUtils.APPLICATION_JSON, Collections.emptyMap());
+        assertThat(decoded).isEqualTo(new Greeting("ni hao jlong"));
+        assertThat(byteBuf.refCnt()).isZero();
+    }
+
+    @Test
+    void releasesTheBufferWhenDecodingFails() {
+        var buffer = this.bufferFactory.allocateBuffer();
+        buffer.write("{ not json".getBytes(StandardCharsets.UTF_8));
+        var byteBuf = ((NettyDataBuffer) buffer).getNativeBuffer();
+
+        assertThatThrownBy(() -> this.decoder.decode(buffer, ResolvableType.forClass(Greeting.class),
+                MimeTypeUtils.APPLICATION_JSON, Collections.emptyMap())).isInstanceOf(DecodingException.class);
+        assertThat(byteBuf.refCnt()).isZero();
+    }
+
+    @Test
+    void onlyClaimsTheConfiguredTypes() {
+        assertThat(this.encoder.canEncode(ResolvableType.forClass(Greeting.class), MimeTypeUtils.APPLICATION_JSON)).isTrue();
+        assertThat(this.encoder.canEncode(ResolvableType.forClass(String.class), MimeTypeUtils.APPLICATION_JSON)).isFalse();
+        assertThat(this.decoder.canDecode(ResolvableType.forClass(Greeting.class), MimeTypeUtils.TEXT_PLAIN)).isFalse();
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    static class Greeting {
+        private String message;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.common;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.exceptions.RejectedException;
+import io.rsocket.metadata.CompositeMetadataCodec;
+import io.rsocket.util.ByteBufPayload;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PayloadCompressionTests {
+
+    private final PayloadCompression compression = new PayloadCompression(64, 1, 10_000);
+
+    @Test
+    void roundTripsPayloadsAboveTheThreshold() {
+        var data = "{\"message\":\"ni hao jlong!\"}".repeat(100);
+        var compressed = this.compression.compress(ByteBufPayload.create(data));
+
+        assertThat(PayloadCompression.isDeflate(compressed)).isTrue();
+        assertThat(compressed.data().readableBytes()).isLessThan(data.length());
+
+        var inflated = PayloadCompression.inflate(compressed, 10_000);
+        assertThat(inflated.getDataUtf8()).isEqualTo(data);
+        inflated.release();
+    }
+
+    // the thread's deflater and inflater are reset, not recreated, between payloads
+    @Test
+    void roundTripsOnePayloadAfterAnother() {
+        for (var name : new String[] {"jlong", "mark", "violetta"}) {
+            var data = ("{\"message\":\"ni hao " + name + "!\"}").repeat(100);
+            var inflated = PayloadCompression.inflate(this.compression.compress(ByteBufPayload.create(data)), 10_000);
+            assertThat(inflated.getDataUtf8()).isEqualTo(data);
+            inflated.release();
+        }
+    }
+
+    @Test
+    void leavesSmallPayloadsAlone() {
+        var payload = ByteBufPayload.create("{\"message\":\"hi\"}");
+        assertThat(this.compression.compress(payload)).isSameAs(payload);
+        assertThat(PayloadCompression.inflate(payload, 10_000)).isSameAs(payload);
+        payload.release();
+    }
+
+    @Test
+    void rejectsWhatInflatesPastTheCap() {
+        var compressed = this.compression.compress(ByteBufPayload.create("0".repeat(100_000)));
+
+        assertThatThrownBy(() -> PayloadCompression.inflate(compressed, 10_000))
+                .isInstanceOf(RejectedException.class);
+        assertThat(compressed.refCnt()).isZero();
+    }
+
+    @Test
+    void inflatesFireAndForgetRequests() {
+        var received = new AtomicReference<String>();
+        var responder = this.compression.compressing(new RSocket() {
+
+            @Override
+            public Mono<Void> fireAndForget(Payload payload) {
+                received.set(payload.getDataUtf8());
+                payload.release();
+                return Mono.empty();
+            }
+        });
+        var data = "{\"name\":\"jlong\"}".repeat(100);
+
+        responder.fireAndForget(this.compression.compress(ByteBufPayload.create(data))).block();
+        assertThat(received).hasValue(data);
+    }
+
+    @Test
+    void readsTheEncodingsAPeerAccepts() {
+        var allocator = ByteBufAllocator.DEFAULT;
+        var metadata = allocator.compositeBuffer();
+        CompositeMetadataCodec.encodeAndAddMetadata(metadata, allocator, PayloadCompression.MIME_TYPE,
+                ByteBufUtil.writeUtf8(allocator, "lz4, deflate"));
+        var setup = ByteBufPayload.create(allocator.buffer(), metadata);
+
+        assertThat(PayloadCompression.isDeflate(setup)).isTrue();
+        assertThat(PayloadCompression.isDeflate(ByteBufPayload.create("hi"))).isFalse();
+        setup.release();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.integration;
+
+import lombok.Value;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.UnicastProcessor;
+import reactor.util.concurrent.Queues;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects {@link GreetingRequest}s into batches and sends each batch over a single
+ * {@code greetings.channel} request channel.
+ */
+@Log4j2
+class BatchingGreetingsGateway {
+
+    private static final String ROUTE = "greetings.channel";
+
+    private final Mono<RSocketRequester> requester;
+    private final int maxPending;
+    private final Duration timeout;
+    // taken by greet(), given back once the batch is over
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final FluxSink<Pending> pending;
+    private final Disposable batches;
+    private volatile Throwable failure;
+
+    BatchingGreetingsGateway(Mono<RSocketRequester> requester, int batchSize, Duration linger, int maxPending, Duration timeout) {
+        var processor = UnicastProcessor.create(Queues.<Pending>get(maxPending).get());
+        this.requester = requester;
+        this.maxPending = maxPending;
+        this.timeout = timeout;
+        this.pending = processor.sink();
+        this.batches = processor
+                .bufferTimeout(batchSize, linger)
+                // bufferTimeout sends a lingering batch whether asked for or not, and fails when there
+                // is no demand for it; every batch holds one of the maxPending greetings at least
+                .onBackpressureBuffer()
+                .flatMap(this::send)
+                .subscribe(null, this::broken);
+    }
+
+    Mono<GreetingResponse> greet(GreetingRequest request) {
+        return Mono.<GreetingResponse>create(callback -> {
+            var failure = this.failure;
+            if (failure != null) {
+                callback.error(new IllegalStateException("batching greetings failed", failure));
+            }
+            else if (this.waiting.incrementAndGet() > this.maxPending) {
+                this.waiting.decrementAndGet();
+                callback.error(new IllegalStateException(this.maxPending + " greetings are already waiting to be answered"));
+            }
+            else {
+                this.pending.next(new Pending(request, callback));
+            }
+        }).timeout(this.timeout);
+    }
+
+    void dispose() {
+        this.pending.complete();
+        this.batches.dispose();
+    }
+
+    private Mono<Void> send(List<Pending> batch) {
+        var requests = Flux.fromIterable(batch).map(Pending::getRequest);
+        var answered = new AtomicInteger();
+        return this.requester
+                .flatMapMany(rsocket -> rsocket
+                        .route(ROUTE)
+                        .data(requests, GreetingRequest.class)
+                        .retrieveFlux(GreetingResponse.class))
+                .timeout(this.timeout)
+                .doOnNext(response -> {
+                    var index = answered.getAndIncrement();
+                    if (index < batch.size()) {
+                        batch.get(index).getCallback().success(response);
+                    }
+                })
+                .then(Mono.fromRunnable(() -> {
+                    if (answered.get() < batch.size()) {
+                        this.fail(batch, answered.get(), new IllegalStateException(
+                                "the service answered " + answered.get() + " of " + batch.size() + " requests"));
+                    }
+                }))
+                .onErrorResume(ex -> {
+                    log.warn("batch of " + batch.size() + " greetings failed: " + ex.getMessage());
+                    this.fail(batch, answered.get(), ex);
+                    return Mono.empty();
+                })
+                .then()
+                .doFinally(signal -> this.waiting.addAndGet(-batch.size()));
+    }
+
+    // the callers already waiting time out, later ones are failed right away
+    private void broken(Throwable ex) {
+        log.error("batching greetings failed, no more batches are sent", ex);
+        this.failure = ex;
+    }
+
+    private void fail(List<Pending> batch, int from, Throwable ex) {
+        for (var i = from; i < batch.size(); i++) {
+            batch.get(i).getCallback().error(ex);
+        }
+    }
+
+    @Value
+    private static class Pending {
+        GreetingRequest request;
+        MonoSink<GreetingResponse> callback;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.integration;
+
+import io.rsocket.exceptions.ApplicationErrorException;
+import lombok.extern.log4j.Log4j2;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.integration.aop.ReceiveMessageAdvice;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lets a polling consumer take another message off its queue only while fewer than
+ * {@code maxInFlight} are still waiting on the service. Whatever is not taken stays queued.
+ */
+@Log4j2
+class InFlightLimit implements ReceiveMessageAdvice {
+
+    private final Semaphore permits;
+
+    InFlightLimit(int maxInFlight) {
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    @Override
+    public boolean beforeReceive(Object source) {
+        return this.permits.tryAcquire();
+    }
+
+    @Override
+    public Message<?> afterReceive(@Nullable Message<?> result, Object source) {
+        if (result == null) {
+            this.permits.release();
+        }
+        return result;
+    }
+
+    // around a handler replying with a Mono, or a Mono of a stream's Flux: the message is acknowledged
+    // and its permit given back once the exchange is over; one the service never got is handed out again
+    MethodInterceptor exchanges(MappedMessageQueue queue, Duration retryDelay) {
+        return invocation -> {
+            var exchange = new Exchange((Message<?>) invocation.getArguments()[0], queue, retryDelay);
+            Object reply;
+            try {
+                reply = invocation.proceed();
+            }
+            catch (Throwable ex) {
+                exchange.failed(ex);
+                throw ex;
+            }
+            if (!(reply instanceof Mono)) {
+                exchange.end();
+                return reply;
+            }
+            return ((Mono<?>) reply)
+                    .map(value -> value instanceof Flux ? exchange.streaming((Flux<?>) value) : value)
+                    .doOnSuccess(value -> {
+                        if (!(value instanceof Flux)) {
+                            exchange.end();
+                        }
+                    })
+                    .doOnError(exchange::failed)
+                    .doOnCancel(exchange::end);
+        };
+    }
+
+    // once the service is done with a message taken off the queue
+    private void release() {
+        this.permits.release();
+    }
+
+    private class Exchange {
+
+        private final Message<?> request;
+        private final MappedMessageQueue queue;
+        private final Duration retryDelay;
+        private final AtomicBoolean over = new AtomicBoolean();
+        private volatile boolean answered;
+
+        Exchange(Message<?> request, MappedMessageQueue queue, Duration retryDelay) {
+            this.request = request;
+            this.queue = queue;
+            this.retryDelay = retryDelay;
+        }
+
+        <T> Flux<T> streaming(Flux<T> replies) {
+            return replies
+                    .doOnNext(reply -> this.answered = true)
+                    .doOnError(this::failed)
+                    .doFinally(signal -> this.end());
+        }
+
+        void failed(Throwable ex) {
+            if (!this.over.compareAndSet(false, true)) {
+                return;
+            }
+            if (this.answered || ex instanceof ApplicationErrorException) {
+                log.warn("the service failed on " + this.request.getPayload(), ex);
+                this.queue.acknowledge(this.request);
+                release();
+                return;
+            }
+            // it keeps its place on disk, nothing is written again
+            log.debug("retrying " + this.request.getPayload() + " in " + this.retryDelay, ex);
+            Mono.delay(this.retryDelay).subscribe(tick -> {
+                this.queue.retry(this.request);
+                release();
+            });
+        }
+
+        void end() {
+            if (this.over.compareAndSet(false, true)) {
+                this.queue.acknowledge(this.request);
+                release();
+            }
+        }
+    }
+}
@@ -1,31 +1,62 @@
 package com.example.integration;
 
+import com.example.common.LoggingSpanExporter;
+import com.example.common.PayloadCompression;
+import com.example.common.ReverseLeases;
+import com.example.common.TracingInterceptor;
+import io.rsocket.core.Resume;
+import io.rsocket.resume.InMemoryResumableFramesStore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.integration.dsl.IntegrationFlow;
+import org.springframework.integration.dsl.IntegrationFlowBuilder;
 import org.springframework.integration.dsl.IntegrationFlows;
 import org.springframework.integration.dsl.MessageChannels;
+import org.springframework.integration.file.FileReadingMessageSource;
 import org.springframework.integration.file.dsl.Files;
-import org.springframework.integration.file.transformer.FileToStringTransformer;
+import org.springframework.integration.file.filters.ChainFileListFilter;
+import org.springframework.integration.file.filters.LastModifiedFileListFilter;
+import org.springframework.integration.file.splitter.FileSplitter;
 import org.springframework.integration.handler.GenericHandler;
+import org.springframework.integration.metadata.PropertiesPersistingMetadataStore;
 import org.springframework.integration.rsocket.ClientRSocketConnector;
 import org.springframework.integration.rsocket.RSocketInteractionModel;
 import org.springframework.integration.rsocket.dsl.RSockets;
+import org.springframework.integration.support.MessageBuilder;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Function;
 
 @Log4j2
 @SpringBootApplication
 public class IntegrationApplication {
 
+    private static final ParameterizedTypeReference<List<GreetingResponse>> GREETING_BATCH = new ParameterizedTypeReference<>() {
+    };
+
     // adapter: unidirectional communication
     // outer service -> SI (inbound adapter)
     // SI -> outer service (outbound adapter)
@@ -36,12 +67,106 @@ public class IntegrationApplication {
     // file | rsocket | log
 
     @Bean
-    ClientRSocketConnector clientRSocketConnector(RSocketStrategies strategies) {
+    ClientRSocketConnector clientRSocketConnector(
+            RSocketStrategies strategies,
+            @Value("${integration.rsocket.data-mime-type:application/cbor}") String dataMimeType,
+            @Value("${integration.rsocket.lease:false}") boolean lease,
+            @Value("${integration.rsocket.lease-timeout:5s}") Duration leaseTimeout,
+            @Value("${integration.rsocket.fragment-size:16384}") int fragmentSize,
+            @Value("${integration.rsocket.compression:false}") boolean compression,
+            @Value("${integration.rsocket.max-inflated-size:" + PayloadCompression.DEFAULT_MAX_INFLATED_SIZE + "}") int maxInflatedSize,
+            @Value("${integration.rsocket.resume:true}") boolean resume,
+            @Value("${integration.rsocket.resume-session-duration:2m}") Duration resumeSessionDuration,
+            @Value("${integration.rsocket.tracing.enabled:false}") boolean tracing,
+            @Value("${integration.rsocket.tracing.sample-rate:0.01}") double sampleRate) {
         var crc = new ClientRSocketConnector("localhost", 8888);
+        crc.setDataMimeType(MimeTypeUtils.parseMimeType(dataMimeType));
         crc.setRSocketStrategies(strategies);
+        if (compression) {
+            crc.setSetupMetadata(Map.of(PayloadCompression.DEFLATE, PayloadCompression.MIME));
+        }
+        crc.setConnectorConfigurer(connector -> {
+            connector.fragment(fragmentSize);
+            if (lease) {
+                // wait for the service to grant a lease rather than fail every file it has no room for yet
+                connector
+                        .lease(ReverseLeases::unlimited)
+                        .interceptors(registry -> registry.forRequester(new LeaseAwaitingInterceptor(leaseTimeout)));
+            }
+            if (compression) {
+                connector.interceptors(registry -> registry.forRequester(PayloadCompression.inflating(maxInflatedSize)));
+            }
+            if (resume) {
+                // a dropped connection picks its streams up where they were instead of reprocessing the files
+                connector.resume(new Resume()
+                        .sessionDuration(resumeSessionDuration)
+                        .cleanupStoreOnKeepAlive()
+                        .storeFactory(token -> new InMemoryResumableFramesStore("client", 1024 * 1024))
+                        .retry(Retry.backoff(Long.MAX_VALUE, Duration.ofMillis(500)).maxBackoff(Duration.ofSeconds(30))));
+            }
+            if (tracing) {
+                // every greeting sent from the file flow starts a trace the service's hops join
+                var interceptor = new TracingInterceptor("integration", sampleRate, new LoggingSpanExporter());
+                connector.interceptors(registry -> registry
+                        .forRequester(interceptor::requester)
+                        .forResponder(interceptor::responder));
+            }
+        });
         return crc;
     }
 
+    // every file still gets its own greeting, but they travel to the service a batch per request channel
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnProperty("integration.rsocket.batching.enabled")
+    BatchingGreetingsGateway batchingGreetingsGateway(
+            ClientRSocketConnector crc,
+            @Value("${integration.rsocket.batching.batch-size:100}") int batchSize,
+            @Value("${integration.rsocket.batching.linger:250ms}") Duration linger,
+            @Value("${integration.rsocket.batching.max-pending:10000}") int maxPending,
+            @Value("${integration.rsocket.batching.timeout:30s}") Duration timeout) {
+        return new BatchingGreetingsGateway(crc.getRequester(), batchSize, linger, maxPending, timeout);
+    }
+
+    // which files were already turned into greetings, kept across restarts
+    @Bean
+    PropertiesPersistingMetadataStore processedFiles(
+            TaskScheduler scheduler,
+            @Value("${integration.files.index-directory:${user.home}/.greetings/integration}") File directory) {
+        var store = new PropertiesPersistingMetadataStore();
+        store.setBaseDirectory(directory.getAbsolutePath());
+        store.setFileName("processed-files.properties");
+        // rewriting the index after every file would cost more than the files themselves, a crash
+        // between flushes at worst sends a few files again
+        scheduler.scheduleWithFixedDelay(store::flush, Instant.now().plusSeconds(5), Duration.ofSeconds(5));
+        return store;
+    }
+
+    @Bean
+    ThreadPoolTaskExecutor fileWorkers(
+            @Value("${integration.files.workers:4}") int workers,
+            @Value("${integration.files.queue-capacity:100}") int queueCapacity) {
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("file-worker-");
+        // a full queue slows the watcher down instead of piling up files in memory
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    // requests that have not reached the service yet, on disk so an outage or a restart loses none of them
+    @Bean(destroyMethod = "close")
+    MappedMessageQueue pendingRequests(
+            @Value("${integration.queue.directory:${user.home}/.greetings/integration/queue}") File directory,
+            @Value("${integration.queue.segment-size:16MB}") DataSize segmentSize,
+            @Value("${integration.queue.max-segments:64}") int maxSegments,
+            @Value("${integration.queue.sync-every:100}") int syncEvery) {
+        return new MappedMessageQueue(directory.toPath(), (int) segmentSize.toBytes(), maxSegments, syncEvery,
+                message -> ((GreetingRequest) message.getPayload()).getName().getBytes(StandardCharsets.UTF_8),
+                bytes -> MessageBuilder.withPayload(new GreetingRequest(new String(bytes, StandardCharsets.UTF_8))).build());
+    }
+
     @Bean
     MessageChannel fluxChannel() {
         return MessageChannels.flux().get();
@@ -50,24 +175,89 @@ public class IntegrationApplication {
     @Bean
     IntegrationFlow rsocketFlow(
             ClientRSocketConnector crc,
-            @Value("${user.home}") File home) {
+            ObjectProvider<BatchingGreetingsGateway> batchingGateway,
+            PropertiesPersistingMetadataStore processedFiles,
+            ThreadPoolTaskExecutor fileWorkers,
+            MappedMessageQueue pendingRequests,
+            @Value("${user.home}") File home,
+            @Value("${integration.files.poll-interval:100ms}") Duration pollInterval,
+            @Value("${integration.files.min-age:2s}") Duration minAge,
+            @Value("${integration.rsocket.max-in-flight:64}") int maxInFlight,
+            @Value("${integration.rsocket.retry-delay:1s}") Duration retryDelay,
+            @Value("${integration.rsocket.interaction-model:requestStream}") RSocketInteractionModel interactionModel,
+            @Value("${integration.rsocket.batched:false}") boolean batched) {
 
         var inFolder = new File(new File(home, "Desktop"), "in");
+        // files still being written are too young, the watch service hands them back until they are
+        // not, so only their creation needs watching
+        var lastModified = new LastModifiedFileListFilter(minAge.toSeconds());
+        var processed = new ProcessedFiles(processedFiles, "greetings:");
         var fileInboundAdapter = Files
                 .inboundAdapter(inFolder)
-                .autoCreateDirectory(true);
+                .autoCreateDirectory(true)
+                .useWatchService(true)
+                .watchEvents(FileReadingMessageSource.WatchEventType.CREATE)
+                .filter(new ChainFileListFilter<File>().addFilters(lastModified, processed));
 
+        // greetings.batched packs many greetings a payload, only streams have something to pack
+        var packed = batched && interactionModel == RSocketInteractionModel.requestStream;
         var rsocket = RSockets
-                .outboundGateway("greetings")
+                .outboundGateway(packed ? "greetings.batched" : route(interactionModel))
                 .clientRSocketConnector(crc)
-                .expectedResponseType(GreetingResponse.class)
-                .interactionModel(RSocketInteractionModel.requestStream);
+                .interactionModel(interactionModel);
+        if (packed) {
+            rsocket.expectedResponseType(GREETING_BATCH);
+        }
+        else {
+            rsocket.expectedResponseType(GreetingResponse.class);
+        }
 
-        return IntegrationFlows
-                .from(fileInboundAdapter, pmc -> pmc.poller(pm -> pm.fixedRate(1_000)))
-                .transform(new FileToStringTransformer())
+        // a slow service keeps requests on the queue instead of in memory
+        var inFlight = new InFlightLimit(maxInFlight);
+        var batching = batchingGateway.getIfAvailable();
+        var requests = IntegrationFlows
+                .from(fileInboundAdapter, pmc -> pmc.poller(pm -> pm.fixedDelay(pollInterval.toMillis()).maxMessagesPerPoll(-1)))
+                .channel(MessageChannels.executor(fileWorkers))
+                // one greeting per line, read as the file streams by instead of into one String
+                .split(Files.splitter().markers())
+                // the end marker comes once the file's last line has been handed on, a crash before then sends the file again
+                .handle(Object.class, (payload, headers) -> {
+                    if (!(payload instanceof FileSplitter.FileMarker)) {
+                        return payload;
+                    }
+                    var marker = (FileSplitter.FileMarker) payload;
+                    if (marker.getMark() == FileSplitter.FileMarker.Mark.END) {
+                        processed.markProcessed(new File(marker.getFilePath()));
+                    }
+                    return null;
+                })
+                .filter(String.class, line -> !line.isBlank())
                 .transform(String.class, GreetingRequest::new)
-                .handle(rsocket)
+                // blocks the file workers once every segment is full
+                .channel(MessageChannels.queue(pendingRequests))
+                .bridge(endpoint -> endpoint.poller(pm -> pm.fixedDelay(pollInterval.toMillis()).maxMessagesPerPoll(-1).advice(inFlight)));
+
+        // every exchange gives its permit back however it ends, and requests the service never got are retried
+        var exchanges = inFlight.exchanges(pendingRequests, retryDelay);
+        IntegrationFlowBuilder responses;
+        if (batching != null) {
+            responses = requests.handle(GreetingRequest.class,
+                    (request, headers) -> batching.greet(request),
+                    endpoint -> endpoint.async(true).advice(exchanges));
+        }
+        else if (packed) {
+            // unpacked here, so split() still sees a Flux of single greetings
+            responses = requests
+                    .handle(rsocket, endpoint -> endpoint.advice(exchanges))
+                    .<Flux<List<GreetingResponse>>, Flux<GreetingResponse>>transform(batches -> batches.flatMapIterable(Function.identity()));
+        }
+        else {
+            // the gateway replies with a Mono: of the greeting, of nothing for fire and forget, of the
+            // Flux of greetings for a stream
+            responses = requests.handle(rsocket, endpoint -> endpoint.advice(exchanges));
+        }
+
+        return responses
                 .split()
                 .channel(fluxChannel())
                 .handle((GenericHandler<GreetingResponse>) (greetingResponse, messageHeaders) -> {
@@ -79,6 +269,20 @@ public class IntegrationApplication {
     }
 
 
+    // the service has a route per interaction model, single greetings skip the stream machinery
+    private static String route(RSocketInteractionModel interactionModel) {
+        switch (interactionModel) {
+            case fireAndForget:
+                return "greetings.ingest";
+            case requestResponse:
+                return "greetings.single";
+            case requestStream:
+                return "greetings";
+            default:
+                throw new IllegalArgumentException("no greetings route for " + interactionModel);
+        }
+    }
+
     public static void main(String[] args) {
         SpringApplication.run(IntegrationApplication.class, args);
     }
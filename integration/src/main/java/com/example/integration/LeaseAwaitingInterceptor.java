@@ -0,0 +1,67 @@
+package com.example.integration;
+
+import io.netty.util.ReferenceCountUtil;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.plugins.RSocketInterceptor;
+import io.rsocket.util.RSocketProxy;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Holds each outgoing request until the connection has lease left to send it, instead of letting
+ * the requester reject it straight away, and gives up after {@code timeout}.
+ */
+class LeaseAwaitingInterceptor implements RSocketInterceptor {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(50);
+
+    private final Duration timeout;
+
+    LeaseAwaitingInterceptor(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    @Override
+    public RSocket apply(RSocket rsocket) {
+        return new RSocketProxy(rsocket) {
+
+            @Override
+            public Mono<Void> fireAndForget(Payload payload) {
+                return awaitLease(this.source, payload).then(Mono.defer(() -> this.source.fireAndForget(payload)));
+            }
+
+            @Override
+            public Mono<Payload> requestResponse(Payload payload) {
+                return awaitLease(this.source, payload).then(Mono.defer(() -> this.source.requestResponse(payload)));
+            }
+
+            @Override
+            public Flux<Payload> requestStream(Payload payload) {
+                return awaitLease(this.source, payload).thenMany(Flux.defer(() -> this.source.requestStream(payload)));
+            }
+
+            // the payloads are not subscribed to until there is lease, a timeout leaves them untouched
+            @Override
+            public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
+                return awaitLease(this.source).thenMany(Flux.defer(() -> this.source.requestChannel(payloads)));
+            }
+        };
+    }
+
+    private Mono<Boolean> awaitLease(RSocket rsocket, Payload payload) {
+        return awaitLease(rsocket).doOnError(ex -> ReferenceCountUtil.safeRelease(payload));
+    }
+
+    private Mono<Boolean> awaitLease(RSocket rsocket) {
+        return Mono
+                .fromCallable(() -> rsocket.availability() > 0)
+                .filter(available -> available)
+                .repeatWhenEmpty(attempts -> attempts.delayElements(POLL_INTERVAL))
+                .timeout(this.timeout, Mono.error(() -> new TimeoutException("no lease granted within " + this.timeout)));
+    }
+}
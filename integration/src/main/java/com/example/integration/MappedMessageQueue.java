@@ -0,0 +1,472 @@
+package com.example.integration;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A bounded queue of messages in memory-mapped segment files. A message taken stays on disk until it
+ * is {@link #acknowledge acknowledged}, so what the service has not answered is delivered again after a restart.
+ */
+class MappedMessageQueue extends AbstractQueue<Message<?>> implements BlockingQueue<Message<?>>, Closeable {
+
+    static final String POSITION = "mappedMessageQueuePosition";
+
+    private static final int END_OF_SEGMENT = -1;
+    private static final String SUFFIX = ".segment";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final int syncEvery;
+    private final Function<Message<?>, byte[]> serializer;
+    private final Function<byte[], Message<?>> deserializer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = this.lock.newCondition();
+    private final Condition notFull = this.lock.newCondition();
+
+    // segment index (long) and offset (int) of the oldest record not acknowledged yet
+    private final MappedByteBuffer checkpoint;
+    // taken and not acknowledged, by position; those handed back are taken again before anything newer
+    private final TreeSet<Long> unacknowledged = new TreeSet<>();
+    private final Deque<Message<?>> redeliveries = new ArrayDeque<>();
+    private long firstSegment;
+    private long readSegment;
+    private ByteBuffer reader;
+    private long writeSegment;
+    private MappedByteBuffer writer;
+    private int count;
+    private int unsynced;
+
+    MappedMessageQueue(Path directory, int segmentSize, int maxSegments, int syncEvery,
+                       Function<Message<?>, byte[]> serializer, Function<byte[], Message<?>> deserializer) {
+        if (maxSegments < 2) {
+            throw new IllegalArgumentException("maxSegments must be at least 2");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.syncEvery = syncEvery;
+        this.serializer = serializer;
+        this.deserializer = deserializer;
+        try {
+            Files.createDirectories(directory);
+            this.checkpoint = map(directory.resolve("checkpoint"), Long.BYTES + Integer.BYTES);
+            this.recover();
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void recover() throws IOException {
+        var segments = this.segments();
+        var checkpointSegment = this.checkpoint.getLong(0);
+        var first = segments.isEmpty() ? 0 : segments.get(0);
+        this.writeSegment = segments.isEmpty() ? 0 : segments.get(segments.size() - 1);
+        this.writer = this.mapSegment(this.writeSegment);
+        while (this.writer.getInt(this.writer.position()) > 0) {
+            this.writer.position(this.writer.position() + Integer.BYTES + this.writer.getInt(this.writer.position()));
+        }
+        if (this.writer.getInt(this.writer.position()) == END_OF_SEGMENT) {
+            this.roll();
+        }
+        this.readSegment = Math.max(first, checkpointSegment);
+        for (var segment : segments) {
+            if (segment < this.readSegment) {
+                this.delete(segment);
+            }
+        }
+        this.firstSegment = this.readSegment;
+        this.reader = this.readSegment == this.writeSegment ? this.writer.duplicate() : this.mapSegment(this.readSegment);
+        this.reader.position(this.readSegment == checkpointSegment ? this.checkpoint.getInt(Long.BYTES) : 0);
+        this.skipEndsOfSegments();
+        this.count = this.records().size();
+        this.moveCheckpoint();
+    }
+
+    @Override
+    public boolean offer(Message<?> message) {
+        var record = this.serializer.apply(message);
+        this.lock.lock();
+        try {
+            if (!this.hasRoom(record.length)) {
+                return false;
+            }
+            this.append(record);
+            return true;
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(Message<?> message) throws InterruptedException {
+        var record = this.serializer.apply(message);
+        this.lock.lockInterruptibly();
+        try {
+            while (!this.hasRoom(record.length)) {
+                this.notFull.await();
+            }
+            this.append(record);
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(Message<?> message, long timeout, TimeUnit unit) throws InterruptedException {
+        var record = this.serializer.apply(message);
+        var nanos = unit.toNanos(timeout);
+        this.lock.lockInterruptibly();
+        try {
+            while (!this.hasRoom(record.length)) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = this.notFull.awaitNanos(nanos);
+            }
+            this.append(record);
+            return true;
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public Message<?> poll() {
+        this.lock.lock();
+        try {
+            return this.count == 0 ? null : this.take0();
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public Message<?> take() throws InterruptedException {
+        this.lock.lockInterruptibly();
+        try {
+            while (this.count == 0) {
+                this.notEmpty.await();
+            }
+            return this.take0();
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public Message<?> poll(long timeout, TimeUnit unit) throws InterruptedException {
+        var nanos = unit.toNanos(timeout);
+        this.lock.lockInterruptibly();
+        try {
+            while (this.count == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = this.notEmpty.awaitNanos(nanos);
+            }
+            return this.take0();
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public Message<?> peek() {
+        this.lock.lock();
+        try {
+            if (this.count == 0) {
+                return null;
+            }
+            if (!this.redeliveries.isEmpty()) {
+                return this.redeliveries.peek();
+            }
+            this.skipEndsOfSegments();
+            return this.deserializer.apply(this.read(this.reader.duplicate()));
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        this.lock.lock();
+        try {
+            return this.count;
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    // the limit is in bytes, not messages
+    @Override
+    public int remainingCapacity() {
+        this.lock.lock();
+        try {
+            return this.hasRoom(0) ? Integer.MAX_VALUE : 0;
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super Message<?>> collection) {
+        return this.drainTo(collection, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Message<?>> collection, int maxElements) {
+        this.lock.lock();
+        try {
+            var drained = 0;
+            while (drained < maxElements && this.count > 0) {
+                collection.add(this.take0());
+                drained++;
+            }
+            return drained;
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    // a snapshot, the queue itself can only be consumed from the head
+    @Override
+    public Iterator<Message<?>> iterator() {
+        this.lock.lock();
+        try {
+            return Stream
+                    .concat(this.redeliveries.stream(), this.records().stream().map(this.deserializer))
+                    .collect(Collectors.<Message<?>>toList())
+                    .iterator();
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    // the service is done with a message taken from here, it is never delivered again
+    void acknowledge(Message<?> message) {
+        var position = message.getHeaders().get(POSITION, Long.class);
+        if (position == null) {
+            return;
+        }
+        this.lock.lock();
+        try {
+            if (this.unacknowledged.remove(position)) {
+                this.moveCheckpoint();
+            }
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    // hands a message taken from here out again, ahead of the rest; it stays where it is on disk
+    void retry(Message<?> message) {
+        var position = message.getHeaders().get(POSITION, Long.class);
+        this.lock.lock();
+        try {
+            if (position != null && this.unacknowledged.contains(position)) {
+                this.redeliveries.add(message);
+                this.count++;
+                this.notEmpty.signal();
+            }
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        this.lock.lock();
+        try {
+            this.sync();
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    private boolean hasRoom(int length) {
+        if (Integer.BYTES + length + Integer.BYTES > this.segmentSize) {
+            throw new IllegalArgumentException("a record of " + length + " bytes does not fit in a segment");
+        }
+        return this.fitsInSegment(length) || this.writeSegment + 1 - this.firstSegment < this.maxSegments;
+    }
+
+    // always leaves room for the end of segment marker
+    private boolean fitsInSegment(int length) {
+        return this.writer.remaining() >= Integer.BYTES + length + Integer.BYTES;
+    }
+
+    private void append(byte[] record) {
+        if (!this.fitsInSegment(record.length)) {
+            this.roll();
+        }
+        // the length goes in last so a torn write reads as the end of the queue
+        var position = this.writer.position();
+        this.writer.position(position + Integer.BYTES);
+        this.writer.put(record);
+        this.writer.putInt(position, record.length);
+        this.count++;
+        if (++this.unsynced >= this.syncEvery) {
+            this.sync();
+        }
+        this.notEmpty.signal();
+    }
+
+    private void roll() {
+        var next = this.mapSegment(this.writeSegment + 1);
+        this.writer.putInt(this.writer.position(), END_OF_SEGMENT);
+        this.writer.force();
+        this.writeSegment++;
+        this.writer = next;
+    }
+
+    private Message<?> take0() {
+        this.count--;
+        if (!this.redeliveries.isEmpty()) {
+            return this.redeliveries.poll();
+        }
+        // the writer may have rolled over since the reader caught up with it
+        this.skipEndsOfSegments();
+        var position = position(this.readSegment, this.reader.position());
+        var record = this.read(this.reader);
+        this.skipEndsOfSegments();
+        this.unacknowledged.add(position);
+        return MessageBuilder.fromMessage(this.deserializer.apply(record)).setHeader(POSITION, position).build();
+    }
+
+    // to the oldest record still unacknowledged, deleting the segments before it
+    private void moveCheckpoint() {
+        var oldest = this.unacknowledged.isEmpty() ? position(this.readSegment, this.reader.position()) : this.unacknowledged.first();
+        this.checkpoint.putLong(0, oldest >>> 32);
+        this.checkpoint.putInt(Long.BYTES, (int) oldest);
+        if (this.firstSegment < oldest >>> 32) {
+            while (this.firstSegment < oldest >>> 32) {
+                this.delete(this.firstSegment++);
+            }
+            this.notFull.signalAll();
+        }
+    }
+
+    private static long position(long segment, int offset) {
+        return segment << 32 | offset;
+    }
+
+    private byte[] read(ByteBuffer buffer) {
+        var record = new byte[buffer.getInt()];
+        buffer.get(record);
+        return record;
+    }
+
+    // moves the reader past finished segments, they are deleted once everything in them is acknowledged
+    private void skipEndsOfSegments() {
+        while (this.reader.getInt(this.reader.position()) == END_OF_SEGMENT) {
+            this.readSegment++;
+            this.reader = this.readSegment == this.writeSegment ? this.writer.duplicate().position(0) : this.mapSegment(this.readSegment);
+        }
+    }
+
+    private List<byte[]> records() {
+        var records = new ArrayList<byte[]>(this.count);
+        var segment = this.readSegment;
+        var buffer = this.reader.duplicate();
+        while (true) {
+            var length = buffer.getInt(buffer.position());
+            if (length > 0) {
+                records.add(this.read(buffer));
+            }
+            else if (length == END_OF_SEGMENT) {
+                segment++;
+                buffer = segment == this.writeSegment ? this.writer.duplicate().position(0) : this.mapSegment(segment);
+            }
+            else {
+                return records;
+            }
+        }
+    }
+
+    private void sync() {
+        this.writer.force();
+        this.checkpoint.force();
+        this.unsynced = 0;
+    }
+
+    private List<Long> segments() throws IOException {
+        try (var files = Files.list(this.directory)) {
+            return files
+                    .map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SUFFIX.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private Path segment(long index) {
+        return this.directory.resolve(String.format("%019d%s", index, SUFFIX));
+    }
+
+    private MappedByteBuffer mapSegment(long index) {
+        try {
+            return map(this.segment(index), this.segmentSize);
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void delete(long index) {
+        try {
+            Files.deleteIfExists(this.segment(index));
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static MappedByteBuffer map(Path file, int size) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.integration;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.integration.file.filters.AbstractFileListFilter;
+import org.springframework.integration.metadata.ConcurrentMetadataStore;
+
+import java.io.File;
+
+// accepts files not yet turned into greetings, but only marks one done when told it is
+@RequiredArgsConstructor
+class ProcessedFiles extends AbstractFileListFilter<File> {
+
+    private final ConcurrentMetadataStore store;
+    private final String prefix;
+
+    @Override
+    public boolean accept(File file) {
+        return !String.valueOf(file.lastModified()).equals(this.store.get(this.key(file)));
+    }
+
+    void markProcessed(File file) {
+        this.store.put(this.key(file), String.valueOf(file.lastModified()));
+    }
+
+    private String key(File file) {
+        return this.prefix + file.getAbsolutePath();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.integration;
+
+import io.rsocket.core.RSocketServer;
+import io.rsocket.transport.netty.server.CloseableChannel;
+import io.rsocket.transport.netty.server.TcpServerTransport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchingGreetingsGatewayTests {
+
+    private final RSocketStrategies strategies = RSocketStrategies
+            .builder()
+            .encoder(new Jackson2JsonEncoder())
+            .decoder(new Jackson2JsonDecoder())
+            .build();
+
+    private CloseableChannel server;
+    private BatchingGreetingsGateway gateway;
+
+    @AfterEach
+    void tearDown() {
+        if (this.gateway != null) {
+            this.gateway.dispose();
+        }
+        if (this.server != null) {
+            this.server.dispose();
+        }
+    }
+
+    @Test
+    void answersEveryCallerWithTheResponseInItsPosition() {
+        this.gateway = new BatchingGreetingsGateway(this.connect(), 10, Duration.ofMillis(50), 100, Duration.ofSeconds(5));
+
+        // 35 callers, so three full batches and one that goes out when it has lingered
+        var greetings = Flux
+                .range(0, 35)
+                .flatMap(i -> this.gateway.greet(new GreetingRequest("name-" + i)).map(response -> i + ": " + response.getMessage()))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertThat(greetings).containsExactlyInAnyOrderElementsOf(IntStream
+                .range(0, 35)
+                .mapToObj(i -> i + ": hello name-" + i)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void turnsAwayCallersOverTheLimit() {
+        this.gateway = new BatchingGreetingsGateway(Mono.never(), 10, Duration.ofMillis(50), 2, Duration.ofSeconds(5));
+
+        var waiting = Flux.merge(this.gateway.greet(new GreetingRequest("one")), this.gateway.greet(new GreetingRequest("two"))).subscribe();
+        StepVerifier.create(this.gateway.greet(new GreetingRequest("three")))
+                .expectErrorMessage("2 greetings are already waiting to be answered")
+                .verify(Duration.ofSeconds(1));
+        waiting.dispose();
+    }
+
+    @Test
+    void timesOutWhenTheServiceCannotBeReached() {
+        this.gateway = new BatchingGreetingsGateway(Mono.never(), 10, Duration.ofMillis(50), 100, Duration.ofMillis(200));
+
+        StepVerifier.create(this.gateway.greet(new GreetingRequest("jlong")))
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private Mono<RSocketRequester> connect() {
+        this.server = RSocketServer
+                .create(RSocketMessageHandler.responder(this.strategies, new GreetingsController()))
+                .bind(TcpServerTransport.create("localhost", 0))
+                .block();
+        return RSocketRequester
+                .builder()
+                .rsocketStrategies(this.strategies)
+                .connectTcp("localhost", this.server.address().getPort())
+                .cache();
+    }
+
+    static class GreetingsController {
+
+        // answers in order, each after its own delay
+        @MessageMapping("greetings.channel")
+        Flux<GreetingResponse> greetAll(Flux<GreetingRequest> requests) {
+            return requests.concatMap(request -> Mono
+                    .just(new GreetingResponse("hello " + request.getName()))
+                    .delayElement(Duration.ofMillis(ThreadLocalRandom.current().nextInt(5))));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.integration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedMessageQueueTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void refusesMoreThanItsSegmentsHold() {
+        var queue = this.queue();
+        var accepted = 0;
+        while (queue.offer(new GenericMessage<>("message-" + accepted))) {
+            accepted++;
+        }
+        assertThat(accepted).isGreaterThan(0);
+        assertThat(queue.remainingCapacity()).isZero();
+
+        // taking a whole segment is not enough, what was taken has to be acknowledged
+        var taken = new ArrayList<Message<?>>();
+        for (var i = 0; i < accepted / 2; i++) {
+            taken.add(queue.poll());
+            assertThat(taken.get(i).getPayload()).isEqualTo("message-" + i);
+        }
+        assertThat(queue.offer(new GenericMessage<>("more"))).isFalse();
+        taken.forEach(queue::acknowledge);
+        assertThat(queue.offer(new GenericMessage<>("more"))).isTrue();
+        queue.close();
+    }
+
+    @Test
+    void replaysWhatWasNotTakenAfterARestart() {
+        var queue = this.queue();
+        for (var i = 0; i < 30; i++) {
+            queue.offer(new GenericMessage<>("message-" + i));
+        }
+        for (var i = 0; i < 10; i++) {
+            queue.acknowledge(queue.poll());
+        }
+        queue.close();
+
+        var reopened = this.queue();
+        assertThat(reopened).hasSize(20);
+        var payloads = new ArrayList<Object>();
+        for (Message<?> message; (message = reopened.poll()) != null; ) {
+            payloads.add(message.getPayload());
+        }
+        assertThat(payloads).first().isEqualTo("message-10");
+        assertThat(payloads).last().isEqualTo("message-29");
+        reopened.close();
+    }
+
+    @Test
+    void deliversWhatWasNotAcknowledgedAgainAfterARestart() {
+        var queue = this.queue();
+        for (var i = 0; i < 3; i++) {
+            queue.offer(new GenericMessage<>("message-" + i));
+        }
+        queue.acknowledge(queue.poll());
+        var second = queue.poll();
+        queue.close();
+
+        var reopened = this.queue();
+        assertThat(reopened).hasSize(2);
+        assertThat(reopened.poll().getPayload()).isEqualTo(second.getPayload());
+        assertThat(reopened.poll().getPayload()).isEqualTo("message-2");
+        reopened.close();
+    }
+
+    @Test
+    void handsARetryOutBeforeAnythingNewer() {
+        var queue = this.queue();
+        queue.offer(new GenericMessage<>("first"));
+        queue.offer(new GenericMessage<>("second"));
+        var first = queue.poll();
+
+        queue.retry(first);
+        assertThat(queue).hasSize(2);
+        var again = queue.poll();
+        assertThat(again.getPayload()).isEqualTo("first");
+        queue.acknowledge(again);
+        assertThat(queue.poll().getPayload()).isEqualTo("second");
+        queue.close();
+    }
+
+    @Test
+    void handsAPutToAWaitingTake() throws Exception {
+        var queue = this.queue();
+        var taken = new ArrayList<Object>();
+        var consumer = new Thread(() -> {
+            try {
+                taken.add(queue.take().getPayload());
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+        queue.put(new GenericMessage<>("late"));
+        consumer.join(5_000);
+        assertThat(taken).isEqualTo(List.of("late"));
+        queue.close();
+    }
+
+    private MappedMessageQueue queue() {
+        return new MappedMessageQueue(this.directory, 256, 4, 10,
+                message -> ((String) message.getPayload()).getBytes(StandardCharsets.UTF_8),
+                bytes -> new GenericMessage<>(new String(bytes, StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.loadtest;
+
+import lombok.extern.log4j.Log4j2;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Response times per interaction model in microseconds, from when each request was due and from when
+ * it was actually sent.
+ */
+@Log4j2
+class Latencies {
+
+    private static final int DIGITS = 3;
+
+    private final Map<LoadTestProperties.Interaction, Recorders> recorders = new EnumMap<>(LoadTestProperties.Interaction.class);
+
+    Latencies() {
+        for (var interaction : LoadTestProperties.Interaction.values()) {
+            this.recorders.put(interaction, new Recorders());
+        }
+    }
+
+    void record(LoadTestProperties.Interaction interaction, long dueNanos, long sentNanos, long doneNanos) {
+        var recorders = this.recorders.get(interaction);
+        recorders.corrected.recordValue(TimeUnit.NANOSECONDS.toMicros(doneNanos - dueNanos));
+        recorders.uncorrected.recordValue(TimeUnit.NANOSECONDS.toMicros(doneNanos - sentNanos));
+    }
+
+    void failed(LoadTestProperties.Interaction interaction) {
+        this.recorders.get(interaction).failures.increment();
+    }
+
+    // what was recorded since the last report, which is added to the totals
+    void report(Duration interval) {
+        this.recorders.forEach((interaction, recorders) -> {
+            var corrected = recorders.corrected.getIntervalHistogram();
+            var uncorrected = recorders.uncorrected.getIntervalHistogram();
+            var failures = recorders.failures.sumThenReset();
+            recorders.totalCorrected.add(corrected);
+            recorders.totalUncorrected.add(uncorrected);
+            recorders.totalFailures += failures;
+            if (corrected.getTotalCount() == 0 && failures == 0) {
+                return;
+            }
+            log.info(String.format("%-16s %8.1f/s  p50 %8.2fms  p99 %8.2fms  p99.9 %8.2fms  max %8.2fms  (uncorrected p99 %8.2fms)  failed %d",
+                    interaction, corrected.getTotalCount() / (interval.toMillis() / 1000d),
+                    millis(corrected, 50), millis(corrected, 99), millis(corrected, 99.9), corrected.getMaxValue() / 1000d,
+                    millis(uncorrected, 99), failures));
+        });
+    }
+
+    void summary(PrintStream out) {
+        this.recorders.forEach((interaction, recorders) -> {
+            if (recorders.totalCorrected.getTotalCount() == 0 && recorders.totalFailures == 0) {
+                return;
+            }
+            out.println();
+            out.println(interaction + ": " + recorders.totalCorrected.getTotalCount() + " answered, " + recorders.totalFailures + " failed");
+            out.println("corrected for coordinated omission, in milliseconds:");
+            recorders.totalCorrected.outputPercentileDistribution(out, 5, 1000d);
+            out.println("uncorrected, in milliseconds:");
+            recorders.totalUncorrected.outputPercentileDistribution(out, 5, 1000d);
+        });
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000d;
+    }
+
+    private static class Recorders {
+
+        private final Recorder corrected = new Recorder(DIGITS);
+        private final Recorder uncorrected = new Recorder(DIGITS);
+        private final LongAdder failures = new LongAdder();
+        // only touched by whoever reports
+        private final Histogram totalCorrected = new Histogram(DIGITS);
+        private final Histogram totalUncorrected = new Histogram(DIGITS);
+        private long totalFailures;
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.loadtest;
+
+import com.example.client.SimpleAuthentication;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.security.rsocket.metadata.UsernamePasswordMetadata;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Opens the connections, then sends requests over them at a fixed rate whether earlier ones were
+ * answered or not.
+ */
+@Log4j2
+class LoadGenerator {
+
+    private final LoadTestProperties properties;
+    private final RSocketRequester.Builder builder;
+    private final UsernamePasswordMetadata credentials;
+    private final Latencies latencies = new Latencies();
+    private final List<RSocketRequester> requesters = new CopyOnWriteArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // the interaction model of the n-th request is mix[n % mix.length]
+    private final LoadTestProperties.Interaction[] mix;
+    private final Scheduler sender = Schedulers.newSingle("load-sender");
+
+    LoadGenerator(LoadTestProperties properties, RSocketRequester.Builder builder) {
+        this.properties = properties;
+        this.builder = builder;
+        this.credentials = new UsernamePasswordMetadata(properties.getUsername(), properties.getPassword());
+        this.mix = properties
+                .getMix()
+                .entrySet()
+                .stream()
+                .flatMap(entry -> IntStream.range(0, entry.getValue()).mapToObj(i -> entry.getKey()))
+                .toArray(LoadTestProperties.Interaction[]::new);
+        if (this.mix.length == 0) {
+            throw new IllegalArgumentException("loadtest.mix gives no interaction model a weight");
+        }
+    }
+
+    Latencies run() {
+        try {
+            this.connect();
+            this.send();
+            return this.latencies;
+        }
+        finally {
+            this.requesters.forEach(requester -> requester.rsocket().dispose());
+            this.sender.dispose();
+        }
+    }
+
+    private void connect() {
+        var connections = this.properties.getConnections();
+        var period = Duration.ofNanos((long) (TimeUnit.SECONDS.toNanos(1) / this.properties.getConnectRate()));
+        log.info("opening " + connections + " connections to " + this.properties.getHost() + ':' + this.properties.getPort());
+        var failed = Flux
+                .interval(Duration.ZERO, period)
+                .take(connections)
+                .flatMap(i -> this.builder
+                        .connectTcp(this.properties.getHost(), this.properties.getPort())
+                        .doOnNext(this.requesters::add)
+                        .then(Mono.just(0))
+                        .onErrorResume(ex -> {
+                            log.warn("could not connect", ex);
+                            return Mono.just(1);
+                        }))
+                .reduce(0, Integer::sum)
+                .block();
+        if (this.requesters.isEmpty()) {
+            throw new IllegalStateException("none of the " + connections + " connections could be opened");
+        }
+        log.info(this.requesters.size() + " connections open, " + failed + " failed");
+    }
+
+    private void send() {
+        var period = (long) (TimeUnit.SECONDS.toNanos(1) / this.properties.getRequestRate());
+        var start = System.nanoTime();
+        var measuredFrom = start + this.properties.getWarmup().toNanos();
+        var end = measuredFrom + this.properties.getDuration().toNanos();
+        var reportInterval = this.properties.getReportInterval();
+        log.info("sending " + this.properties.getRequestRate() + " requests a second, measuring after " + this.properties.getWarmup());
+
+        var reports = Flux
+                .interval(reportInterval, reportInterval)
+                .subscribe(tick -> this.latencies.report(reportInterval));
+        // each tick sends every request that has come due since the last, with the time it was due
+        var sent = new AtomicLong();
+        Flux.interval(Duration.ofMillis(1), this.sender)
+                .map(tick -> System.nanoTime())
+                .takeUntil(now -> now >= end)
+                .doOnNext(now -> {
+                    var due = Math.min(now, end);
+                    for (var n = sent.get(); start + n * period <= due; n = sent.incrementAndGet()) {
+                        var dueNanos = start + n * period;
+                        this.send(n, dueNanos, dueNanos >= measuredFrom);
+                    }
+                })
+                .blockLast();
+
+        // whatever is still in flight gets until the timeout to come back
+        Mono.fromCallable(this.inFlight::get)
+                .filter(count -> count == 0)
+                .repeatWhenEmpty(attempts -> attempts.delayElements(Duration.ofMillis(100)))
+                .timeout(this.properties.getTimeout(), Mono.empty())
+                .block();
+        reports.dispose();
+        this.latencies.report(reportInterval);
+        log.info(sent.get() + " requests sent, " + this.inFlight.get() + " left unanswered");
+    }
+
+    private void send(long n, long dueNanos, boolean measured) {
+        var interaction = this.mix[(int) (n % this.mix.length)];
+        var requester = this.requesters.get((int) (n % this.requesters.size()));
+        this.inFlight.incrementAndGet();
+        var sentNanos = System.nanoTime();
+        this.exchange(requester, interaction)
+                // encoded and sent on another thread, the sender only keeps time
+                .subscribeOn(Schedulers.parallel())
+                .timeout(this.properties.getTimeout())
+                .doFinally(signal -> this.inFlight.decrementAndGet())
+                .subscribe(
+                        done -> { },
+                        ex -> {
+                            log.debug(interaction + " failed", ex);
+                            if (measured) {
+                                this.latencies.failed(interaction);
+                            }
+                        },
+                        () -> {
+                            if (measured) {
+                                this.latencies.record(interaction, dueNanos, sentNanos, System.nanoTime());
+                            }
+                        });
+    }
+
+    // completes once the whole exchange is over, the last greeting of a stream received
+    private Mono<Void> exchange(RSocketRequester requester, LoadTestProperties.Interaction interaction) {
+        var spec = requester
+                .route(interaction.route)
+                .metadata(this.credentials, SimpleAuthentication.MIME_TYPE);
+        switch (interaction) {
+            case FIRE_AND_FORGET:
+                return spec.data(this.request()).send();
+            case REQUEST_RESPONSE:
+                return spec.data(this.request()).retrieveMono(GreetingResponse.class).then();
+            case REQUEST_STREAM:
+                return spec
+                        .metadata(new StreamOptions(this.properties.getStreamElements(), 0L, 1), StreamOptions.MIME_TYPE)
+                        .data(this.request())
+                        .retrieveFlux(GreetingResponse.class)
+                        .then();
+            case REQUEST_CHANNEL:
+                return spec
+                        .data(Flux.range(0, this.properties.getStreamElements()).map(i -> this.request()), GreetingRequest.class)
+                        .retrieveFlux(GreetingResponse.class)
+                        .then();
+            default:
+                throw new IllegalArgumentException("no exchange for " + interaction);
+        }
+    }
+
+    private GreetingRequest request() {
+        return new GreetingRequest(this.properties.getUsername());
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.loadtest;
+
+import com.example.client.HealthController;
+import com.example.client.SimpleAuthentication;
+import com.example.common.ReverseLeases;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.rsocket.messaging.RSocketStrategiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
+import org.springframework.security.rsocket.metadata.UsernamePasswordMetadata;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Puts {@link LoadTestProperties the configured load} on the greetings service, prints the latency
+ * distributions and exits.
+ */
+@SpringBootApplication
+@EnableConfigurationProperties(LoadTestProperties.class)
+public class LoadTestApplication {
+
+    public static void main(String[] args) {
+        System.exit(SpringApplication.exit(SpringApplication.run(LoadTestApplication.class, args)));
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "loadtest.start-service", matchIfMissing = true)
+    LocalService localService(LoadTestProperties properties) {
+        return new LocalService(properties.getPort());
+    }
+
+    @Bean
+    RSocketStrategiesCustomizer strategiesCustomizer() {
+        return SimpleAuthentication::configure;
+    }
+
+    // runs once the local service, if any, is up
+    @Bean
+    ApplicationRunner loadTest(LoadTestProperties properties, RSocketRequester.Builder builder, RSocketStrategies strategies) {
+        return args -> {
+            // every connection answers the service's health requests the way the client does
+            var health = new HealthController(properties.getHealthFailureProbability());
+            var credentials = new UsernamePasswordMetadata(properties.getUsername(), properties.getPassword());
+            builder
+                    .setupMetadata(credentials, SimpleAuthentication.MIME_TYPE)
+                    .rsocketConnector(connector -> {
+                        connector.acceptor(RSocketMessageHandler.responder(strategies, health));
+                        if (properties.isLease()) {
+                            connector.lease(ReverseLeases::unlimited);
+                        }
+                    });
+            new LoadGenerator(properties, builder)
+                    .run()
+                    .summary(System.out);
+        };
+    }
+}
+
+// DTO
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+class GreetingResponse {
+    private String message;
+}
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+class GreetingRequest {
+    private String name;
+}
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+class StreamOptions {
+
+    static final MimeType MIME_TYPE = MimeTypeUtils.parseMimeType("application/vnd.greetings.stream+json");
+
+    private Integer count;
+    private Long intervalMillis;
+    private Integer batchSize;
+}
@@ -0,0 +1,71 @@
+package com.example.loadtest;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The load to put on the service: how many clients, how many requests a second and of which
+ * interaction models.
+ */
+@Data
+@ConfigurationProperties("loadtest")
+class LoadTestProperties {
+
+    // starts ServiceApplication in this JVM on the port below, otherwise host and port point at a running one
+    private boolean startService = true;
+
+    private String host = "localhost";
+
+    private int port = 8888;
+
+    private String username = "jlong";
+
+    private String password = "pw";
+
+    private int connections = 1_000;
+
+    // new connections a second until all are open
+    private double connectRate = 200;
+
+    // over all connections, each sent on schedule whether the ones before it were answered or not
+    private double requestRate = 2_000;
+
+    // measured after the warmup, whose requests are sent but not recorded
+    private Duration warmup = Duration.ofSeconds(10);
+
+    private Duration duration = Duration.ofMinutes(1);
+
+    private Duration reportInterval = Duration.ofSeconds(5);
+
+    // a request taking longer counts as failed
+    private Duration timeout = Duration.ofSeconds(30);
+
+    // relative weights, requests are spread over the interaction models in these proportions
+    private Map<Interaction, Integer> mix = new EnumMap<>(Map.of(Interaction.REQUEST_RESPONSE, 1));
+
+    // greetings asked for per request stream, and names sent per request channel
+    private int streamElements = 100;
+
+    private double healthFailureProbability = 0.2;
+
+    // grants the service leases in return, for a service with its own on
+    private boolean lease;
+
+    enum Interaction {
+
+        FIRE_AND_FORGET("greetings.ingest"),
+        REQUEST_RESPONSE("greetings.single"),
+        REQUEST_STREAM("greetings"),
+        REQUEST_CHANNEL("greetings.channel");
+
+        final String route;
+
+        Interaction(String route) {
+            this.route = route;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.loadtest;
+
+import com.example.service.ServiceApplication;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * {@link ServiceApplication} running in this JVM, listening on TCP only. Simpler than starting it
+ * separately, though it then shares the machine's cores with the clients driving it.
+ */
+class LocalService implements DisposableBean {
+
+    private final ConfigurableApplicationContext context;
+
+    LocalService(int port) {
+        this.context = new SpringApplicationBuilder(ServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.rsocket.server.port=" + port);
+    }
+
+    @Override
+    public void destroy() {
+        this.context.close();
+    }
+}
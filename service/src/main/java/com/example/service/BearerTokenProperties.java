@@ -0,0 +1,33 @@
+package com.example.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * JWT bearer token authentication, used instead of username and password when
+ * {@code service.security.authentication=bearer}.
+ */
+@Data
+@ConfigurationProperties("service.security.bearer")
+class BearerTokenProperties {
+
+    private URI jwkSetUri;
+
+    // tokens from any other issuer are turned away, none checks only signature and expiry
+    private String issuer;
+
+    private Duration refreshInterval = Duration.ofMinutes(5);
+
+    // how soon a token signed with a key we do not know yet may make us fetch the set again
+    private Duration minRefreshInterval = Duration.ofSeconds(30);
+
+    // an authentication waiting on a fetch waits this long at most, then goes on with the keys it has
+    private Duration fetchTimeout = Duration.ofSeconds(5);
+
+    private String authoritiesClaim = "roles";
+
+    private String authorityPrefix = "ROLE_";
+}
@@ -0,0 +1,62 @@
+package com.example.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.rsocket.RSocketSecurity;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtReactiveAuthenticationManager;
+import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
+import org.springframework.security.rsocket.core.PayloadSocketAcceptorInterceptor;
+
+// verifying a signature against a key already in memory instead of hashing a password per check
+@Configuration
+@EnableConfigurationProperties(BearerTokenProperties.class)
+@ConditionalOnProperty(value = "service.security.authentication", havingValue = "bearer")
+class BearerTokenSecurityConfiguration {
+
+    @Bean
+    PayloadSocketAcceptorInterceptor bearerTokenInterceptor(
+            RSocketSecurity security,
+            JwtReactiveAuthenticationManager authenticationManager) {
+        return security
+                .jwt(spec -> spec.authenticationManager(authenticationManager))
+                // ROLE_ADMIN, from an ADMIN entry in the authorities claim under the default prefix
+                .authorizePayload(ap -> ap
+                        .route("management.*").hasRole("ADMIN")
+                        .anyExchange().authenticated())
+                .build();
+    }
+
+    @Bean
+    CachedJwkSet cachedJwkSet(BearerTokenProperties properties) {
+        return new CachedJwkSet(properties.getJwkSetUri(), properties.getRefreshInterval(),
+                properties.getMinRefreshInterval(), properties.getFetchTimeout());
+    }
+
+    @Bean
+    ReactiveJwtDecoder jwtDecoder(CachedJwkSet keys, BearerTokenProperties properties) {
+        var decoder = NimbusReactiveJwtDecoder.withJwkSource(keys).build();
+        if (properties.getIssuer() != null) {
+            decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(properties.getIssuer()));
+        }
+        return decoder;
+    }
+
+    @Bean
+    JwtReactiveAuthenticationManager jwtAuthenticationManager(ReactiveJwtDecoder decoder, BearerTokenProperties properties) {
+        var authorities = new JwtGrantedAuthoritiesConverter();
+        authorities.setAuthoritiesClaimName(properties.getAuthoritiesClaim());
+        authorities.setAuthorityPrefix(properties.getAuthorityPrefix());
+        var converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(authorities);
+        var manager = new JwtReactiveAuthenticationManager(decoder);
+        manager.setJwtAuthenticationConverter(new ReactiveJwtAuthenticationConverterAdapter(converter));
+        return manager;
+    }
+}
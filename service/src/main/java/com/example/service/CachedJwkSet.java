@@ -0,0 +1,105 @@
+package com.example.service;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.SignedJWT;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.DisposableBean;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.util.retry.Retry;
+
+import java.net.URI;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * The signing keys tokens are checked against, kept in memory and fetched again in the background.
+ */
+@Log4j2
+class CachedJwkSet implements Function<SignedJWT, Flux<JWK>>, DisposableBean {
+
+    private final HttpClient http = HttpClient.create();
+    private final URI uri;
+    private final long minRefreshNanos;
+    private final Duration fetchTimeout;
+    private final AtomicReference<JWKSet> keys = new AtomicReference<>(new JWKSet());
+    private final AtomicLong lastRefresh;
+    private final Disposable refreshes;
+
+    CachedJwkSet(URI uri, Duration refreshInterval, Duration minRefreshInterval, Duration fetchTimeout) {
+        this.uri = uri;
+        this.minRefreshNanos = minRefreshInterval.toNanos();
+        this.fetchTimeout = fetchTimeout;
+        // a token that arrives before the first fetch is done may fetch right away
+        this.lastRefresh = new AtomicLong(System.nanoTime() - this.minRefreshNanos);
+        this.refreshes = Flux
+                .interval(Duration.ZERO, refreshInterval)
+                // a tick that comes while a fetch is still running is skipped, not an overflow
+                .onBackpressureDrop()
+                .concatMap(tick -> this.refresh())
+                .doOnError(ex -> log.error("refreshing the JWK set failed, starting over", ex))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(refreshInterval))
+                .subscribe();
+    }
+
+    @Override
+    public Flux<JWK> apply(SignedJWT jwt) {
+        var selector = new JWKSelector(JWKMatcher.forJWSHeader(jwt.getHeader()));
+        var matching = selector.select(this.keys.get());
+        if (!matching.isEmpty()) {
+            return Flux.fromIterable(matching);
+        }
+        return this.refreshIfStale()
+                .map(selector::select)
+                .flatMapIterable(Function.identity());
+    }
+
+    private Mono<JWKSet> refreshIfStale() {
+        var now = System.nanoTime();
+        var last = this.lastRefresh.get();
+        if (now - last < this.minRefreshNanos || !this.lastRefresh.compareAndSet(last, now)) {
+            return Mono.just(this.keys.get());
+        }
+        return this.refresh();
+    }
+
+    // keeps the keys it has when the issuer can't be reached
+    private Mono<JWKSet> refresh() {
+        return this.http
+                .get()
+                .uri(this.uri.toString())
+                .responseSingle((response, body) -> response.status().code() == 200 ? body.asString() :
+                        Mono.error(new IllegalStateException("fetching " + this.uri + " answered " + response.status())))
+                .timeout(this.fetchTimeout)
+                .map(json -> {
+                    try {
+                        return JWKSet.parse(json);
+                    }
+                    catch (ParseException ex) {
+                        throw new IllegalStateException("not a JWK set at " + this.uri, ex);
+                    }
+                })
+                .doOnNext(set -> {
+                    this.keys.set(set);
+                    this.lastRefresh.set(System.nanoTime());
+                    log.debug("fetched " + set.getKeys().size() + " keys from " + this.uri);
+                })
+                .onErrorResume(ex -> {
+                    log.warn("could not refresh the JWK set, keeping " + this.keys.get().getKeys().size() + " keys", ex);
+                    return Mono.just(this.keys.get());
+                });
+    }
+
+    @Override
+    public void destroy() {
+        this.refreshes.dispose();
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import lombok.SneakyThrows;
+import lombok.ToString;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Authenticates a connection's credentials once, and the same credentials on other connections from a
+ * bounded cache, before calling the password hashing delegate.
+ */
+class CachingReactiveAuthenticationManager implements ReactiveAuthenticationManager {
+
+    private final ReactiveAuthenticationManager delegate;
+    private final Cache<CredentialsKey, Authentication> cache;
+    private final Counter connectionHits;
+
+    CachingReactiveAuthenticationManager(ReactiveAuthenticationManager delegate,
+                                         AuthenticationCacheProperties properties,
+                                         MeterRegistry registry) {
+        this.delegate = delegate;
+        this.cache = CaffeineCacheMetrics.monitor(registry, Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build(), "rsocket.authentication");
+        this.connectionHits = Counter
+                .builder("rsocket.authentication.connection.reuse")
+                .description("requests authenticated by the principal bound to their connection at SETUP")
+                .register(registry);
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        if (!(authentication instanceof UsernamePasswordAuthenticationToken) || authentication.getCredentials() == null) {
+            return this.delegate.authenticate(authentication);
+        }
+        var key = CredentialsKey.of(authentication.getName(), authentication.getCredentials().toString());
+        return ReactiveSecurityContextHolder
+                .getContext()
+                .map(SecurityContext::getAuthentication)
+                .filter(connection -> key.equals(connection.getDetails()))
+                .doOnNext(connection -> this.connectionHits.increment())
+                .switchIfEmpty(Mono.defer(() -> this.cached(key, authentication)));
+    }
+
+    private Mono<Authentication> cached(CredentialsKey key, Authentication authentication) {
+        var cached = this.cache.getIfPresent(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return this.delegate
+                .authenticate(authentication)
+                .map(authenticated -> {
+                    var token = new UsernamePasswordAuthenticationToken(
+                            authenticated.getPrincipal(), null, authenticated.getAuthorities());
+                    token.setDetails(key);
+                    this.cache.put(key, token);
+                    return (Authentication) token;
+                });
+    }
+
+    // never keep the raw password around, only a digest of it
+    @ToString(of = "username")
+    @EqualsAndHashCode
+    static final class CredentialsKey {
+
+        private final String username;
+        private final byte[] digest;
+
+        private CredentialsKey(String username, byte[] digest) {
+            this.username = username;
+            this.digest = digest;
+        }
+
+        @SneakyThrows
+        static CredentialsKey of(String username, String password) {
+            var sha = MessageDigest.getInstance("SHA-256");
+            sha.update(username.getBytes(StandardCharsets.UTF_8));
+            sha.update((byte) 0);
+            return new CredentialsKey(username, sha.digest(password.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+}
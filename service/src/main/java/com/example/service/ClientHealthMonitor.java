@@ -0,0 +1,69 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.rsocket.RSocket;
+import io.rsocket.lease.MissingLeaseException;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One reverse {@code health} stream per client connection, shared by every greetings stream on it.
+ */
+@Log4j2
+@Component
+class ClientHealthMonitor {
+
+    private final Map<RSocket, Flux<ClientHealthState>> monitors = new ConcurrentHashMap<>();
+    private final AtomicInteger reverseStreams = new AtomicInteger();
+    private final Counter opened;
+
+    ClientHealthMonitor(MeterRegistry registry) {
+        Gauge.builder("rsocket.health.reverse.streams", this.reverseStreams, AtomicInteger::get)
+                .description("reverse health streams currently open to clients")
+                .register(registry);
+        Gauge.builder("rsocket.health.monitored.connections", this.monitors, Map::size)
+                .register(registry);
+        this.opened = Counter.builder("rsocket.health.reverse.streams.opened").register(registry);
+    }
+
+    Flux<ClientHealthState> health(RSocketRequester clientRSocketConnection) {
+        var rsocket = clientRSocketConnection.rsocket();
+        var monitor = this.monitors.get(rsocket);
+        if (monitor != null) {
+            return monitor;
+        }
+        var created = clientRSocketConnection
+                .route("health")
+                .retrieveFlux(ClientHealthState.class)
+                .doOnSubscribe(subscription -> {
+                    this.reverseStreams.incrementAndGet();
+                    this.opened.increment();
+                })
+                .doOnNext(chs -> {
+                    if (!chs.isHealthy()) {
+                        log.info("not healthy! ");
+                    }
+                })
+                // a peer that grants no leases cannot be asked, its health is unknown rather than bad
+                .onErrorResume(MissingLeaseException.class, ex -> Flux.never())
+                .doFinally(signal -> this.reverseStreams.decrementAndGet())
+                .publish()
+                .refCount();
+        var existing = this.monitors.putIfAbsent(rsocket, created);
+        if (existing != null) {
+            return existing;
+        }
+        rsocket.onClose()
+                .doFinally(signal -> this.monitors.remove(rsocket))
+                .subscribe(done -> { }, ex -> { });
+        return created;
+    }
+}
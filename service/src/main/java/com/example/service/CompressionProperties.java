@@ -0,0 +1,23 @@
+package com.example.service;
+
+import com.example.common.PayloadCompression;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.zip.Deflater;
+
+@Data
+@ConfigurationProperties("service.rsocket.compression")
+class CompressionProperties {
+
+    // off unless asked for, and then only towards peers that advertise it in their SETUP metadata
+    private boolean enabled = false;
+
+    // payloads with less data than this go out as they are
+    private int threshold = 1_024;
+
+    private int level = Deflater.BEST_SPEED;
+
+    // a compressed request that inflates to more than this is rejected
+    private int maxInflatedSize = PayloadCompression.DEFAULT_MAX_INFLATED_SIZE;
+}
@@ -0,0 +1,244 @@
+package com.example.service;
+
+import com.example.common.Routes;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.SocketAcceptor;
+import io.rsocket.plugins.SocketAcceptorInterceptor;
+import io.rsocket.util.RSocketProxy;
+import org.reactivestreams.Publisher;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Operators;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Every connection accepted by this service, with who it was authenticated as, its open streams and
+ * the payload bytes exchanged.
+ */
+class ConnectionRegistry implements SocketAcceptorInterceptor {
+
+    private final MappedRoutes routes;
+    private final Map<Long, Connection> connections = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    ConnectionRegistry(MappedRoutes routes) {
+        this.routes = routes;
+    }
+
+    @Override
+    public SocketAcceptor apply(SocketAcceptor acceptor) {
+        return (setup, sendingSocket) -> principal().flatMap(principal -> {
+            var connection = new Connection(this.ids.incrementAndGet(), principal, Instant.now(), this.routes);
+            // handlers see the tracked requester, so their requests back to the client are counted too
+            var requester = new TrackedRSocket(sendingSocket, connection, connection.outbound);
+            this.connections.put(connection.id, connection);
+            sendingSocket.onClose()
+                    .doFinally(signal -> this.connections.remove(connection.id))
+                    .onErrorResume(ex -> Mono.empty())
+                    .subscribe();
+            return acceptor
+                    .accept(setup, requester)
+                    .map(responder -> new TrackedRSocket(responder, connection, connection.inbound));
+        });
+    }
+
+    Collection<ConnectionInfo> connections() {
+        return this.connections
+                .values()
+                .stream()
+                .map(Connection::info)
+                .collect(Collectors.toList());
+    }
+
+    private static Mono<String> principal() {
+        return ReactiveSecurityContextHolder
+                .getContext()
+                .map(SecurityContext::getAuthentication)
+                .map(Authentication::getName)
+                .defaultIfEmpty(Routes.UNKNOWN);
+    }
+
+    private static long size(Payload payload) {
+        return payload.data().readableBytes() + (payload.hasMetadata() ? payload.metadata().readableBytes() : 0);
+    }
+
+    private static class Connection {
+
+        private final long id;
+        private final String principal;
+        private final Instant setupTime;
+        private final Streams inbound;
+        private final Streams outbound;
+        private final LongAdder bytesIn = new LongAdder();
+        private final LongAdder bytesOut = new LongAdder();
+
+        // the client picks the routes it asks for, the service the ones it asks the client for
+        Connection(long id, String principal, Instant setupTime, MappedRoutes routes) {
+            this.id = id;
+            this.principal = principal;
+            this.setupTime = setupTime;
+            this.inbound = new Streams(routes::of);
+            this.outbound = new Streams(UnaryOperator.identity());
+        }
+
+        ConnectionInfo info() {
+            return new ConnectionInfo(this.id, this.principal, this.setupTime,
+                    this.inbound.active(), this.inbound.demand.sum(), this.inbound.unbounded.sum(),
+                    this.outbound.active(), this.outbound.demand.sum(), this.outbound.unbounded.sum(),
+                    this.bytesIn.sum(), this.bytesOut.sum());
+        }
+    }
+
+    // the streams one side of a connection has asked the other for
+    private static class Streams {
+
+        private final UnaryOperator<String> names;
+        private final Map<String, LongAdder> routes = new ConcurrentHashMap<>();
+        private final LongAdder demand = new LongAdder();
+        private final LongAdder unbounded = new LongAdder();
+
+        Streams(UnaryOperator<String> names) {
+            this.names = names;
+        }
+
+        LongAdder route(String route) {
+            return this.routes.computeIfAbsent(this.names.apply(route), key -> new LongAdder());
+        }
+
+        Map<String, Long> active() {
+            return this.routes
+                    .entrySet()
+                    .stream()
+                    .filter(entry -> entry.getValue().sum() > 0)
+                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().sum()));
+        }
+    }
+
+    // request(n) minus what has been delivered for one stream, Long.MAX_VALUE once it is unbounded
+    private static class Demand {
+
+        private static final long DONE = -1;
+
+        private final Streams streams;
+        private final AtomicLong outstanding = new AtomicLong();
+
+        Demand(Streams streams) {
+            this.streams = streams;
+        }
+
+        void request(long n) {
+            long previous;
+            long next;
+            do {
+                previous = this.outstanding.get();
+                if (previous == DONE || previous == Long.MAX_VALUE) {
+                    return;
+                }
+                next = Operators.addCap(previous, n);
+            }
+            while (!this.outstanding.compareAndSet(previous, next));
+            if (next == Long.MAX_VALUE) {
+                this.streams.demand.add(-previous);
+                this.streams.unbounded.increment();
+            }
+            else {
+                this.streams.demand.add(next - previous);
+            }
+        }
+
+        void delivered() {
+            var previous = this.outstanding.getAndUpdate(value -> value > 0 && value != Long.MAX_VALUE ? value - 1 : value);
+            if (previous > 0 && previous != Long.MAX_VALUE) {
+                this.streams.demand.decrement();
+            }
+        }
+
+        void done() {
+            var left = this.outstanding.getAndSet(DONE);
+            if (left == Long.MAX_VALUE) {
+                this.streams.unbounded.decrement();
+            }
+            else if (left > 0) {
+                this.streams.demand.add(-left);
+            }
+        }
+    }
+
+    private static class TrackedRSocket extends RSocketProxy {
+
+        private final Streams streams;
+        private final LongAdder requestBytes;
+        private final LongAdder responseBytes;
+
+        // inbound requests come in and are answered out, outbound ones the other way round
+        TrackedRSocket(RSocket source, Connection connection, Streams streams) {
+            super(source);
+            this.streams = streams;
+            var inbound = streams == connection.inbound;
+            this.requestBytes = inbound ? connection.bytesIn : connection.bytesOut;
+            this.responseBytes = inbound ? connection.bytesOut : connection.bytesIn;
+        }
+
+        @Override
+        public Mono<Void> fireAndForget(Payload payload) {
+            this.requestBytes.add(size(payload));
+            return this.track(Routes.of(payload), super.fireAndForget(payload));
+        }
+
+        @Override
+        public Mono<Payload> requestResponse(Payload payload) {
+            this.requestBytes.add(size(payload));
+            return this.track(Routes.of(payload), super.requestResponse(payload)
+                    .doOnNext(response -> this.responseBytes.add(size(response))));
+        }
+
+        @Override
+        public Flux<Payload> requestStream(Payload payload) {
+            this.requestBytes.add(size(payload));
+            return this.track(Routes.of(payload), super.requestStream(payload));
+        }
+
+        @Override
+        public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
+            var counted = Flux.from(payloads).doOnNext(payload -> this.requestBytes.add(size(payload)));
+            return counted.switchOnFirst((first, all) -> this.track(Routes.of(first.get()), super.requestChannel(all)));
+        }
+
+        private <T> Mono<T> track(String route, Mono<T> source) {
+            var active = this.streams.route(route);
+            return source
+                    .doOnSubscribe(subscription -> active.increment())
+                    .doFinally(signal -> active.decrement());
+        }
+
+        private Flux<Payload> track(String route, Flux<Payload> source) {
+            var active = this.streams.route(route);
+            return Flux.defer(() -> {
+                var demand = new Demand(this.streams);
+                return source
+                        .doOnSubscribe(subscription -> active.increment())
+                        .doOnRequest(demand::request)
+                        .doOnNext(payload -> {
+                            demand.delivered();
+                            this.responseBytes.add(size(payload));
+                        })
+                        .doFinally(signal -> {
+                            demand.done();
+                            active.decrement();
+                        });
+            });
+        }
+    }
+}
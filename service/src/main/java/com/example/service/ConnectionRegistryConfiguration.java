@@ -0,0 +1,23 @@
+package com.example.service;
+
+import org.springframework.boot.rsocket.server.RSocketServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+@Configuration
+class ConnectionRegistryConfiguration {
+
+    @Bean
+    ConnectionRegistry connectionRegistry(MappedRoutes routes) {
+        return new ConnectionRegistry(routes);
+    }
+
+    // inside security, which tells it the principal, and outside quotas, so rejected requests count too
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE + 2)
+    RSocketServerCustomizer connectionRegistryServerCustomizer(ConnectionRegistry registry) {
+        return server -> server.interceptors(interceptors -> interceptors.forSocketAcceptor(registry));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.Map;
+
+// a snapshot of every open connection, to find slow consumers and streams nobody cancelled
+@Controller
+@RequiredArgsConstructor
+class ConnectionsController {
+
+    private final ConnectionRegistry registry;
+
+    @MessageMapping("management.connections")
+    Flux<ConnectionInfo> connections() {
+        return Flux.defer(() -> Flux.fromIterable(this.registry.connections()));
+    }
+}
+
+// DTO
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+class ConnectionInfo {
+
+    private long id;
+    private String principal;
+    private Instant setupTime;
+
+    // requests from the client, by route
+    private Map<String, Long> inboundStreams;
+    // elements the client asked for that have not been sent yet
+    private long inboundDemand;
+    private long inboundUnboundedStreams;
+
+    // requests to the client, the reverse health streams among them
+    private Map<String, Long> outboundStreams;
+    private long outboundDemand;
+    private long outboundUnboundedStreams;
+
+    private long bytesIn;
+    private long bytesOut;
+}
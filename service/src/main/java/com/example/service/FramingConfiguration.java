@@ -0,0 +1,34 @@
+package com.example.service;
+
+import com.example.common.PayloadCompression;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.rsocket.server.RSocketServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CompressionProperties.class)
+class FramingConfiguration {
+
+    // frames bigger than this are split so a large payload can't hold up other streams on the
+    // connection, 0 turns fragmentation off
+    @Bean
+    RSocketServerCustomizer fragmentationServerCustomizer(@Value("${service.rsocket.fragment-size:16384}") int fragmentSize) {
+        return server -> server.fragment(fragmentSize);
+    }
+
+    @Bean
+    @ConditionalOnProperty("service.rsocket.compression.enabled")
+    RSocketServerCustomizer compressionServerCustomizer(CompressionProperties properties) {
+        var compression = new PayloadCompression(properties.getThreshold(), properties.getLevel(), properties.getMaxInflatedSize());
+        return server -> server.interceptors(registry -> registry.forSocketAcceptor(acceptor ->
+                (setup, sendingSocket) -> {
+                    var negotiated = PayloadCompression.isDeflate(setup);
+                    return acceptor
+                            .accept(setup, sendingSocket)
+                            .map(rsocket -> negotiated ? compression.compressing(rsocket) : rsocket);
+                }));
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.service;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.rsocket.messaging.RSocketStrategiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(GreetingsProperties.class)
+class GreetingsConfiguration {
+
+    @Bean
+    RSocketStrategiesCustomizer streamOptionsCustomizer() {
+        return strategies -> strategies.metadataExtractorRegistry(registry ->
+                registry.metadataToExtract(StreamOptions.MIME_TYPE, StreamOptions.class, StreamOptions.HEADER));
+    }
+}
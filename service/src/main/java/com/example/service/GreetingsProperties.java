@@ -0,0 +1,70 @@
+package com.example.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+
+/**
+ * Defaults for a {@code greetings} stream and the limits that whatever a client asks for in its
+ * {@link StreamOptions} metadata is clamped to.
+ */
+@Data
+@ConfigurationProperties("service.greetings")
+class GreetingsProperties {
+
+    private int count = 100;
+
+    private Duration interval = Duration.ofSeconds(1);
+
+    private int batchSize = 1;
+
+    private int maxCount = 10_000;
+
+    // zero lets clients ask for a purely demand-driven stream
+    private Duration minInterval = Duration.ZERO;
+
+    private int maxBatchSize = 1_000;
+
+    // greetings packed into one payload on greetings.batched, and how long a partly filled one may wait
+    private int packSize = 100;
+
+    private Duration linger = Duration.ofMillis(50);
+
+    private int maxPackSize = 1_000;
+
+    // greetings a paced greetings.batched stream holds for a consumer that has not asked for them yet
+    private int maxBuffered = 256;
+
+    // beyond that the stream fails, rather than losing greetings without the consumer knowing
+    private Overflow overflow = Overflow.ERROR;
+
+    // a consumer that asks for nothing for this long is reported, zero turns the check off
+    private Duration stallThreshold = Duration.ofSeconds(30);
+
+    // and its stream ended with a CANCELED error
+    private boolean cancelStalled = false;
+
+    StreamOptions limit(@Nullable StreamOptions requested) {
+        var options = requested == null ? new StreamOptions() : requested;
+        var count = options.getCount() == null ? this.count : options.getCount();
+        var interval = options.getIntervalMillis() == null ? this.interval.toMillis() : options.getIntervalMillis();
+        var batchSize = options.getBatchSize() == null ? this.batchSize : options.getBatchSize();
+        var packSize = options.getPackSize() == null ? this.packSize : options.getPackSize();
+        var linger = options.getLingerMillis() == null ? this.linger.toMillis() : options.getLingerMillis();
+        return new StreamOptions(
+                Math.max(1, Math.min(count, this.maxCount)),
+                Math.max(interval, this.minInterval.toMillis()),
+                Math.max(1, Math.min(batchSize, this.maxBatchSize)),
+                Math.max(1, Math.min(packSize, this.maxPackSize)),
+                Math.max(1, linger));
+    }
+
+    enum Overflow {
+        DROP_OLDEST,
+        // a buffer of one, always holding the newest
+        LATEST,
+        ERROR
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.service;
+
+import com.example.common.ZeroCopyConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty("service.rsocket.zero-copy")
+class GreetingsZeroCopyConfiguration extends ZeroCopyConfiguration {
+
+    GreetingsZeroCopyConfiguration() {
+        super(GreetingRequest.class, GreetingResponse.class, ClientHealthState.class);
+    }
+}
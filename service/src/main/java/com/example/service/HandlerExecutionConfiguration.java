@@ -0,0 +1,67 @@
+package com.example.service;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.rsocket.server.RSocketServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Log4j2
+@Configuration
+@EnableConfigurationProperties(HandlerExecutionProperties.class)
+@Conditional(HandlerExecutionConfiguration.OffTheEventLoop.class)
+class HandlerExecutionConfiguration {
+
+    @Bean
+    RSocketServerCustomizer handlerExecutionServerCustomizer(Scheduler handlerScheduler) {
+        return server -> server.interceptors(registry -> registry.forResponder(new SchedulingInterceptor(handlerScheduler)));
+    }
+
+    // its threads, or the virtual thread executor, are shut down with the context
+    @Bean(destroyMethod = "dispose")
+    Scheduler handlerScheduler(HandlerExecutionProperties properties) {
+        if (properties.getExecution() == HandlerExecutionProperties.Execution.VIRTUAL_THREADS) {
+            var executor = virtualThreadPerTaskExecutor();
+            if (executor.isPresent()) {
+                return Schedulers.fromExecutorService(executor.get(), "rsocket-handler");
+            }
+            log.warn("this JDK has no virtual threads, running handlers on a bounded elastic scheduler instead");
+        }
+        return Schedulers.newBoundedElastic(properties.getThreadCap(), properties.getQueuedTaskCap(), "rsocket-handler");
+    }
+
+    // looked up reflectively, this compiles for and runs on JDKs that predate it
+    private static Optional<ExecutorService> virtualThreadPerTaskExecutor() {
+        try {
+            var factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return Optional.of((ExecutorService) factory.invoke(null));
+        }
+        catch (ReflectiveOperationException ex) {
+            return Optional.empty();
+        }
+    }
+
+    // handlers stay on the event loop unless told otherwise, and then there is nothing to set up
+    static class OffTheEventLoop implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return Binder
+                    .get(context.getEnvironment())
+                    .bind("service.rsocket.handlers.execution", HandlerExecutionProperties.Execution.class)
+                    .map(execution -> execution != HandlerExecutionProperties.Execution.EVENT_LOOP)
+                    .orElse(false);
+        }
+    }
+}
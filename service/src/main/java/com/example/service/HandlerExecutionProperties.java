@@ -0,0 +1,26 @@
+package com.example.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Where {@code @MessageMapping} handlers run: on the event loop, or on threads that may block.
+ */
+@Data
+@ConfigurationProperties("service.rsocket.handlers")
+class HandlerExecutionProperties {
+
+    private Execution execution = Execution.EVENT_LOOP;
+
+    private int threadCap = Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE;
+
+    private int queuedTaskCap = Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE;
+
+    enum Execution {
+        EVENT_LOOP,
+        BOUNDED_ELASTIC,
+        // a virtual thread per request where the JDK has them, bounded elastic otherwise
+        VIRTUAL_THREADS
+    }
+}
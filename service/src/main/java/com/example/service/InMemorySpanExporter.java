@@ -0,0 +1,49 @@
+package com.example.service;
+
+import com.example.common.Span;
+import com.example.common.SpanExporter;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the most recent spans in memory, for tests and for looking at a trace without a
+ * collector. Beyond {@code capacity} the oldest spans are dropped.
+ */
+class InMemorySpanExporter implements SpanExporter {
+
+    private final Queue<Span> spans = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int capacity;
+
+    InMemorySpanExporter(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void export(Span span) {
+        this.spans.add(span);
+        if (this.size.incrementAndGet() > this.capacity && this.spans.poll() != null) {
+            this.size.decrementAndGet();
+        }
+    }
+
+    List<Span> spans() {
+        return List.copyOf(this.spans);
+    }
+
+    List<Span> trace(String traceId) {
+        return this.spans
+                .stream()
+                .filter(span -> span.getTraceId().equals(traceId))
+                .collect(Collectors.toList());
+    }
+
+    void clear() {
+        this.spans.clear();
+        this.size.set(0);
+    }
+}
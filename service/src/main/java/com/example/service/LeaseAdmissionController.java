@@ -0,0 +1,162 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.lease.Lease;
+import io.rsocket.lease.LeaseStats;
+import io.rsocket.lease.Leases;
+import io.rsocket.plugins.RSocketInterceptor;
+import io.rsocket.util.RSocketProxy;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Issues per-connection leases sized from the requests currently in flight and an exponentially
+ * weighted average of the time to first response, which it measures as a responder interceptor.
+ */
+class LeaseAdmissionController implements RSocketInterceptor {
+
+    private static final double ALPHA = 0.2;
+
+    private final LeaseProperties properties;
+    private final MeterRegistry registry;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Counter issued;
+    private final Counter rejected;
+    private volatile double latencyNanos;
+
+    LeaseAdmissionController(LeaseProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.registry = registry;
+        Gauge.builder("rsocket.lease.in.flight", this.inFlight, AtomicInteger::get).register(registry);
+        Gauge.builder("rsocket.lease.connections", this.connections, AtomicInteger::get).register(registry);
+        Gauge.builder("rsocket.lease.latency", this, c -> c.latencyNanos)
+                .baseUnit("nanoseconds")
+                .register(registry);
+        this.issued = Counter.builder("rsocket.lease.issued").register(registry);
+        this.rejected = Counter.builder("rsocket.lease.rejected").register(registry);
+    }
+
+    // called by the server once per accepted connection
+    Leases<?> leases() {
+        return Leases.<LeaseStats>create()
+                .sender(stats -> this.send())
+                .stats(event -> {
+                    if (event == LeaseStats.EventType.REJECT) {
+                        this.rejected.increment();
+                    }
+                });
+    }
+
+    private Flux<Lease> send() {
+        var ttl = (int) this.properties.getTimeToLive().toMillis();
+        return Flux
+                .interval(this.properties.getRefreshInterval())
+                .startWith(0L)
+                .map(tick -> this.budget())
+                // no capacity left: let the current lease run out rather than grant anything
+                .filter(budget -> budget > 0)
+                .map(budget -> Lease.create(ttl, budget))
+                .doOnNext(lease -> this.issued.increment())
+                .doOnSubscribe(subscription -> this.connections.incrementAndGet())
+                .doFinally(signal -> this.connections.decrementAndGet());
+    }
+
+    int budget() {
+        var available = this.properties.getMaxInFlight() - this.inFlight.get();
+        if (available <= 0) {
+            return 0;
+        }
+        var target = (double) this.properties.getTargetLatency().toNanos();
+        var latency = this.latencyNanos;
+        var scale = latency <= target ? 1d : target / latency;
+        var share = available * scale / Math.max(1, this.connections.get());
+        // always keep at least one request admitted per connection so latency keeps being sampled
+        return Math.max(1, (int) share);
+    }
+
+    private synchronized void sample(long nanos) {
+        this.latencyNanos = this.latencyNanos == 0 ? nanos : this.latencyNanos + ALPHA * (nanos - this.latencyNanos);
+    }
+
+    @Override
+    public RSocket apply(RSocket rsocket) {
+        return new AdmittedRSocket(rsocket);
+    }
+
+    private class AdmittedRSocket extends RSocketProxy {
+
+        AdmittedRSocket(RSocket source) {
+            super(source);
+        }
+
+        @Override
+        public Mono<Void> fireAndForget(Payload payload) {
+            return Mono.defer(() -> {
+                var request = new Request();
+                return super.fireAndForget(payload)
+                        .doOnSuccess(done -> request.onFirst())
+                        .doFinally(signal -> request.onFinally());
+            });
+        }
+
+        @Override
+        public Mono<Payload> requestResponse(Payload payload) {
+            return Mono.defer(() -> {
+                var request = new Request();
+                return super.requestResponse(payload)
+                        .doOnSuccess(response -> request.onFirst())
+                        .doFinally(signal -> request.onFinally());
+            });
+        }
+
+        @Override
+        public Flux<Payload> requestStream(Payload payload) {
+            return Flux.defer(() -> {
+                var request = new Request();
+                return super.requestStream(payload)
+                        .doOnNext(response -> request.onFirst())
+                        .doFinally(signal -> request.onFinally());
+            });
+        }
+
+        @Override
+        public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
+            return Flux.defer(() -> {
+                var request = new Request();
+                return super.requestChannel(payloads)
+                        .doOnNext(response -> request.onFirst())
+                        .doFinally(signal -> request.onFinally());
+            });
+        }
+    }
+
+    // one per admitted request, its signals are serialized
+    private class Request {
+
+        private final long start = registry.config().clock().monotonicTime();
+        private boolean first = true;
+
+        Request() {
+            inFlight.incrementAndGet();
+        }
+
+        void onFirst() {
+            if (this.first) {
+                this.first = false;
+                sample(registry.config().clock().monotonicTime() - this.start);
+            }
+        }
+
+        void onFinally() {
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.rsocket.server.RSocketServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// off unless enabled: once on, every connection is leased both ways, whatever the peer's SETUP frame
+// says, and a peer that grants the service no leases (see ReverseLeases) is not asked about its health
+@Configuration
+@EnableConfigurationProperties(LeaseProperties.class)
+@ConditionalOnProperty("service.rsocket.lease.enabled")
+class LeaseConfiguration {
+
+    @Bean
+    LeaseAdmissionController leaseAdmissionController(LeaseProperties properties, MeterRegistry registry) {
+        return new LeaseAdmissionController(properties, registry);
+    }
+
+    @Bean
+    RSocketServerCustomizer leaseServerCustomizer(LeaseAdmissionController controller) {
+        return server -> server
+                .lease(controller::leases)
+                .interceptors(registry -> registry.forResponder(controller));
+    }
+}
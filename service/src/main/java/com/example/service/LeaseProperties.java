@@ -0,0 +1,25 @@
+package com.example.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * How much work the server admits once leases are enabled, shared out between connections.
+ */
+@Data
+@ConfigurationProperties("service.rsocket.lease")
+class LeaseProperties {
+
+    private boolean enabled;
+
+    private int maxInFlight = 1_000;
+
+    private Duration targetLatency = Duration.ofSeconds(2);
+
+    private Duration refreshInterval = Duration.ofSeconds(1);
+
+    // longer than the refresh interval so a connection is never left without a lease between refreshes
+    private Duration timeToLive = Duration.ofSeconds(2);
+}
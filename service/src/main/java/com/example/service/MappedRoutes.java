@@ -0,0 +1,59 @@
+package com.example.service;
+
+import com.example.common.Routes;
+import io.rsocket.Payload;
+import org.springframework.messaging.handler.DestinationPatternsMessageCondition;
+import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The routes {@link RSocketMessageHandler} has handlers for, so meters and keys are named after a
+ * handler's pattern and never after whatever a client sent.
+ */
+@Component
+class MappedRoutes {
+
+    private final RSocketMessageHandler handler;
+    private volatile Set<String> patterns;
+
+    MappedRoutes(RSocketMessageHandler handler) {
+        this.handler = handler;
+    }
+
+    String of(Payload payload) {
+        return this.of(Routes.of(payload));
+    }
+
+    String of(String route) {
+        var patterns = this.patterns();
+        if (patterns.contains(route)) {
+            return route;
+        }
+        var matcher = this.handler.getRouteMatcher();
+        var parsed = matcher.parseRoute(route);
+        for (var pattern : patterns) {
+            if (matcher.match(pattern, parsed)) {
+                return pattern;
+            }
+        }
+        return Routes.UNKNOWN;
+    }
+
+    // the handler only detects its handlers once it is initialized, after the interceptors are built
+    private Set<String> patterns() {
+        var patterns = this.patterns;
+        if (patterns == null) {
+            patterns = this.handler
+                    .getHandlerMethods()
+                    .keySet()
+                    .stream()
+                    .flatMap(mapping -> mapping.getCondition(DestinationPatternsMessageCondition.class).getPatterns().stream())
+                    .collect(Collectors.toUnmodifiableSet());
+            this.patterns = patterns;
+        }
+        return patterns;
+    }
+}
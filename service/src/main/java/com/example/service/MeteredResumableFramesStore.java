@@ -0,0 +1,109 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.buffer.ByteBuf;
+import io.rsocket.resume.InMemoryResumableFramesStore;
+import io.rsocket.resume.ResumableFramesStore;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A capped in-memory frame store that knows how many bytes it is holding on to.
+ */
+class MeteredResumableFramesStore implements ResumableFramesStore {
+
+    private final ResumableFramesStore delegate;
+    private final AtomicLong saved = new AtomicLong();
+    private final Counter resumed;
+
+    private MeteredResumableFramesStore(ResumableFramesStore delegate, Counter resumed) {
+        this.delegate = delegate;
+        this.resumed = resumed;
+    }
+
+    long buffered() {
+        return Math.max(0, this.saved.get() - this.delegate.framePosition());
+    }
+
+    @Override
+    public Mono<Void> saveFrames(Flux<ByteBuf> frames) {
+        return this.delegate.saveFrames(frames.doOnNext(frame -> this.saved.addAndGet(frame.readableBytes())));
+    }
+
+    @Override
+    public void releaseFrames(long remoteImpliedPos) {
+        this.delegate.releaseFrames(remoteImpliedPos);
+    }
+
+    @Override
+    public Flux<ByteBuf> resumeStream() {
+        this.resumed.increment();
+        return this.delegate.resumeStream();
+    }
+
+    @Override
+    public long framePosition() {
+        return this.delegate.framePosition();
+    }
+
+    @Override
+    public long frameImpliedPosition() {
+        return this.delegate.frameImpliedPosition();
+    }
+
+    @Override
+    public void resumableFrameReceived(ByteBuf frame) {
+        this.delegate.resumableFrameReceived(frame);
+    }
+
+    @Override
+    public Mono<Void> onClose() {
+        return this.delegate.onClose();
+    }
+
+    @Override
+    public void dispose() {
+        this.delegate.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return this.delegate.isDisposed();
+    }
+
+    // one store per session, all of them reported together
+    static class Factory {
+
+        private final Set<MeteredResumableFramesStore> stores = ConcurrentHashMap.newKeySet();
+        private final int maxBufferSize;
+        private final Counter resumed;
+
+        Factory(MeterRegistry registry, int maxBufferSize) {
+            this.maxBufferSize = maxBufferSize;
+            this.resumed = Counter.builder("rsocket.resume.resumed").register(registry);
+            Gauge.builder("rsocket.resume.sessions", this.stores, Set::size).register(registry);
+            Gauge.builder("rsocket.resume.buffer.size", this, Factory::buffered)
+                    .baseUnit("bytes")
+                    .description("frames held for clients to resume from, across all sessions")
+                    .register(registry);
+        }
+
+        ResumableFramesStore create(ByteBuf token) {
+            var store = new MeteredResumableFramesStore(
+                    new InMemoryResumableFramesStore("server", this.maxBufferSize), this.resumed);
+            this.stores.add(store);
+            store.onClose().doFinally(signal -> this.stores.remove(store)).subscribe(done -> { }, ex -> { });
+            return store;
+        }
+
+        private double buffered() {
+            return this.stores.stream().mapToLong(MeteredResumableFramesStore::buffered).sum();
+        }
+    }
+}
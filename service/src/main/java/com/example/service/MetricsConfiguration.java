@@ -0,0 +1,22 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.rsocket.server.RSocketServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(value = "service.rsocket.metrics.enabled", matchIfMissing = true)
+class MetricsConfiguration {
+
+    @Bean
+    RSocketMetricsInterceptor rSocketMetricsInterceptor(MeterRegistry registry, MappedRoutes routes) {
+        return new RSocketMetricsInterceptor(registry, routes);
+    }
+
+    @Bean
+    RSocketServerCustomizer metricsServerCustomizer(RSocketMetricsInterceptor interceptor) {
+        return server -> server.interceptors(registry -> registry.forResponder(interceptor));
+    }
+}
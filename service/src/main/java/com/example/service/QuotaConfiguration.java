@@ -0,0 +1,28 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.rsocket.server.RSocketServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+@Configuration
+@EnableConfigurationProperties(QuotaProperties.class)
+@ConditionalOnProperty("service.rsocket.quotas.enabled")
+class QuotaConfiguration {
+
+    @Bean
+    QuotaInterceptor quotaInterceptor(QuotaProperties properties, MeterRegistry registry, MappedRoutes routes) {
+        return new QuotaInterceptor(properties, registry, routes);
+    }
+
+    // inside security, which tells it the principal, and outside the response cache, so hits count too
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    RSocketServerCustomizer quotaServerCustomizer(QuotaInterceptor quotas) {
+        return server -> server.interceptors(registry -> registry.forSocketAcceptor(quotas));
+    }
+}
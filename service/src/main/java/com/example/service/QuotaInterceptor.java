@@ -0,0 +1,201 @@
+package com.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.SocketAcceptor;
+import io.rsocket.exceptions.RejectedException;
+import io.rsocket.plugins.SocketAcceptorInterceptor;
+import io.rsocket.util.RSocketProxy;
+import org.reactivestreams.Publisher;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Turns away, with a {@link RejectedException}, requests over the rate or concurrent streams
+ * {@link QuotaProperties} allows a principal per route.
+ */
+class QuotaInterceptor implements SocketAcceptorInterceptor {
+
+    static final String ANONYMOUS = "anonymous";
+
+    private final QuotaProperties properties;
+    private final MeterRegistry registry;
+    private final MappedRoutes routes;
+    private final Cache<String, Limits> limits;
+
+    QuotaInterceptor(QuotaProperties properties, MeterRegistry registry, MappedRoutes routes) {
+        this.properties = properties;
+        this.registry = registry;
+        this.routes = routes;
+        this.limits = Caffeine.newBuilder()
+                .expireAfter(new WhileIdle(properties.getIdleTimeout()))
+                .build();
+    }
+
+    @Override
+    public SocketAcceptor apply(SocketAcceptor acceptor) {
+        return (setup, sendingSocket) -> acceptor
+                .accept(setup, sendingSocket)
+                .map(LimitedRSocket::new);
+    }
+
+    private Limits limits(String principal, String route) {
+        return this.limits.get(key(principal, route), key -> {
+            var quota = this.properties.getRoutes().getOrDefault(route, this.properties.getDefaults());
+            return new Limits(quota);
+        });
+    }
+
+    // written back whenever its open streams change, so its expiry is worked out again
+    private void touch(String principal, String route, Limits limits) {
+        this.limits.put(key(principal, route), limits);
+    }
+
+    private static String key(String principal, String route) {
+        return principal + '\n' + route;
+    }
+
+    private static Mono<String> principal() {
+        return ReactiveSecurityContextHolder
+                .getContext()
+                .map(SecurityContext::getAuthentication)
+                .map(Authentication::getName)
+                .defaultIfEmpty(ANONYMOUS);
+    }
+
+    private RejectedException reject(Payload payload, String route, String reason, String message) {
+        payload.release();
+        this.registry.counter("rsocket.quota.rejected", "route", route, "reason", reason).increment();
+        return new RejectedException(message);
+    }
+
+    private class LimitedRSocket extends RSocketProxy {
+
+        LimitedRSocket(RSocket source) {
+            super(source);
+        }
+
+        @Override
+        public Mono<Void> fireAndForget(Payload payload) {
+            var route = routes.of(payload);
+            return principal().flatMap(principal -> {
+                var limits = limits(principal, route);
+                return limits.tryRequest() ? super.fireAndForget(payload) : Mono.error(this.rateExceeded(payload, principal, route, limits));
+            });
+        }
+
+        @Override
+        public Mono<Payload> requestResponse(Payload payload) {
+            var route = routes.of(payload);
+            return principal().flatMap(principal -> {
+                var limits = limits(principal, route);
+                return limits.tryRequest() ? super.requestResponse(payload) : Mono.error(this.rateExceeded(payload, principal, route, limits));
+            });
+        }
+
+        @Override
+        public Flux<Payload> requestStream(Payload payload) {
+            return this.stream(payload, () -> super.requestStream(payload));
+        }
+
+        @Override
+        public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
+            return Flux.from(payloads).switchOnFirst((first, all) -> first.hasValue() ?
+                    this.stream(first.get(), () -> super.requestChannel(all)) :
+                    super.requestChannel(all));
+        }
+
+        // the stream's slot is given back however it ends, cancelled by the consumer included
+        private Flux<Payload> stream(Payload payload, Supplier<Flux<Payload>> source) {
+            var route = routes.of(payload);
+            return principal().flatMapMany(principal -> {
+                var limits = limits(principal, route);
+                if (!limits.tryRequest()) {
+                    return Flux.error(this.rateExceeded(payload, principal, route, limits));
+                }
+                if (!limits.tryOpenStream()) {
+                    return Flux.error(reject(payload, route, "streams",
+                            principal + " already has " + limits.quota.getMaxConcurrentStreams() + " streams open on " + route));
+                }
+                touch(principal, route, limits);
+                return source.get().doFinally(signal -> {
+                    limits.closeStream();
+                    touch(principal, route, limits);
+                });
+            });
+        }
+
+        private RejectedException rateExceeded(Payload payload, String principal, String route, Limits limits) {
+            return reject(payload, route, "rate",
+                    principal + " is over " + limits.quota.getRequestsPerSecond() + " requests a second on " + route);
+        }
+    }
+
+    // a principal's limits are forgotten once idle, never while they still count open streams
+    private static class WhileIdle implements Expiry<String, Limits> {
+
+        private final long idleNanos;
+
+        WhileIdle(Duration idleTimeout) {
+            this.idleNanos = idleTimeout.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Limits limits, long currentTime) {
+            return limits.streams.get() > 0 ? Long.MAX_VALUE : this.idleNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Limits limits, long currentTime, long currentDuration) {
+            return this.expireAfterCreate(key, limits, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Limits limits, long currentTime, long currentDuration) {
+            return this.expireAfterCreate(key, limits, currentTime);
+        }
+    }
+
+    private static class Limits {
+
+        private final QuotaProperties.Quota quota;
+        private final TokenBucket requests;
+        private final AtomicInteger streams = new AtomicInteger();
+
+        Limits(QuotaProperties.Quota quota) {
+            this.quota = quota;
+            this.requests = new TokenBucket(quota.getRequestsPerSecond(), quota.getBurst(), System.nanoTime());
+        }
+
+        boolean tryRequest() {
+            return this.requests.tryTake(System.nanoTime());
+        }
+
+        boolean tryOpenStream() {
+            while (true) {
+                var open = this.streams.get();
+                if (open >= this.quota.getMaxConcurrentStreams()) {
+                    return false;
+                }
+                if (this.streams.compareAndSet(open, open + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void closeStream() {
+            this.streams.decrementAndGet();
+        }
+    }
+}
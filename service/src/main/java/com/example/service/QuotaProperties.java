@@ -0,0 +1,38 @@
+package com.example.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * What each principal may do on each route. Every principal gets its own request rate and stream
+ * limit per route, one tenant using up theirs leaves everyone else's untouched.
+ */
+@Data
+@ConfigurationProperties("service.rsocket.quotas")
+class QuotaProperties {
+
+    private boolean enabled = false;
+
+    private Quota defaults = new Quota();
+
+    // replaces the defaults for the routes listed
+    private Map<String, Quota> routes = new HashMap<>();
+
+    // the limits of a principal that has sent nothing for this long, and has no stream open, are forgotten
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    @Data
+    static class Quota {
+
+        private double requestsPerSecond = 100;
+
+        private int burst = 100;
+
+        // request streams and channels open at the same time
+        private int maxConcurrentStreams = 10;
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.service;
+
+import com.example.common.Routes;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.plugins.RSocketInterceptor;
+import io.rsocket.util.RSocketProxy;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records, per route and interaction model, how every request handled by this responder ends and how
+ * long it took.
+ */
+class RSocketMetricsInterceptor implements RSocketInterceptor {
+
+    static final String FIRE_AND_FORGET = "fire_and_forget";
+    static final String REQUEST_RESPONSE = "request_response";
+    static final String REQUEST_STREAM = "request_stream";
+    static final String REQUEST_CHANNEL = "request_channel";
+    static final String METADATA_PUSH = "metadata_push";
+
+    private final MeterRegistry registry;
+    private final MappedRoutes routes;
+    private final Map<String, RouteMeters> meters = new ConcurrentHashMap<>();
+
+    RSocketMetricsInterceptor(MeterRegistry registry, MappedRoutes routes) {
+        this.registry = registry;
+        this.routes = routes;
+    }
+
+    @Override
+    public RSocket apply(RSocket rsocket) {
+        return new MeteredRSocket(rsocket);
+    }
+
+    private RouteMeters meters(String route, String interaction) {
+        return this.meters.computeIfAbsent(route + '/' + interaction, key -> new RouteMeters(route, interaction));
+    }
+
+    private <T> Mono<T> instrument(Mono<T> source, RouteMeters meters) {
+        return Mono.defer(() -> {
+            var sample = new Sample(meters);
+            return source
+                    .doOnNext(value -> sample.onNext())
+                    .doFinally(sample::onFinally);
+        });
+    }
+
+    private <T> Flux<T> instrument(Flux<T> source, RouteMeters meters) {
+        return Flux.defer(() -> {
+            var sample = new Sample(meters);
+            return source
+                    .doOnNext(value -> sample.onNext())
+                    .doFinally(sample::onFinally);
+        });
+    }
+
+    private class MeteredRSocket extends RSocketProxy {
+
+        MeteredRSocket(RSocket source) {
+            super(source);
+        }
+
+        @Override
+        public Mono<Void> fireAndForget(Payload payload) {
+            var meters = meters(routes.of(payload), FIRE_AND_FORGET);
+            return instrument(super.fireAndForget(payload), meters);
+        }
+
+        @Override
+        public Mono<Payload> requestResponse(Payload payload) {
+            var meters = meters(routes.of(payload), REQUEST_RESPONSE);
+            return instrument(super.requestResponse(payload), meters);
+        }
+
+        @Override
+        public Flux<Payload> requestStream(Payload payload) {
+            var meters = meters(routes.of(payload), REQUEST_STREAM);
+            return instrument(super.requestStream(payload), meters);
+        }
+
+        @Override
+        public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
+            return Flux.from(payloads).switchOnFirst((first, all) -> {
+                var meters = meters(routes.of(first.get()), REQUEST_CHANNEL);
+                return instrument(super.requestChannel(all), meters);
+            });
+        }
+
+        @Override
+        public Mono<Void> metadataPush(Payload payload) {
+            return instrument(super.metadataPush(payload), meters(Routes.UNKNOWN, METADATA_PUSH));
+        }
+    }
+
+    private class RouteMeters {
+
+        private final Timer success;
+        private final Timer error;
+        private final Timer cancelled;
+        private final Timer first;
+        private final Timer interval;
+        private final DistributionSummary elements;
+        private final boolean stream;
+
+        RouteMeters(String route, String interaction) {
+            var tags = Tags.of("route", route, "interaction", interaction);
+            this.success = this.timer("rsocket.request", tags.and("outcome", "success"));
+            this.error = this.timer("rsocket.request", tags.and("outcome", "error"));
+            this.cancelled = this.timer("rsocket.request", tags.and("outcome", "cancelled"));
+            this.first = this.timer("rsocket.request.first", tags);
+            this.interval = this.timer("rsocket.stream.interval", tags);
+            this.elements = DistributionSummary
+                    .builder("rsocket.stream.elements")
+                    .tags(tags)
+                    .publishPercentiles(0.5, 0.99, 0.999)
+                    .register(registry);
+            this.stream = REQUEST_STREAM.equals(interaction) || REQUEST_CHANNEL.equals(interaction);
+        }
+
+        private Timer timer(String name, Tags tags) {
+            return Timer.builder(name)
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .publishPercentiles(0.5, 0.99, 0.999)
+                    .register(registry);
+        }
+    }
+
+    // one per subscription, signals for a single subscription are serialized
+    private class Sample {
+
+        private final RouteMeters meters;
+        private final long start;
+        private long last;
+        private long count;
+
+        Sample(RouteMeters meters) {
+            this.meters = meters;
+            this.start = registry.config().clock().monotonicTime();
+            this.last = this.start;
+        }
+
+        void onNext() {
+            var now = registry.config().clock().monotonicTime();
+            if (this.count++ == 0) {
+                this.meters.first.record(now - this.start, TimeUnit.NANOSECONDS);
+            }
+            else {
+                this.meters.interval.record(now - this.last, TimeUnit.NANOSECONDS);
+            }
+            this.last = now;
+        }
+
+        void onFinally(SignalType signal) {
+            var duration = registry.config().clock().monotonicTime() - this.start;
+            var timer = signal == SignalType.ON_ERROR ? this.meters.error :
+                    signal == SignalType.CANCEL ? this.meters.cancelled : this.meters.success;
+            timer.record(duration, TimeUnit.NANOSECONDS);
+            if (this.meters.stream) {
+                this.meters.elements.record(this.count);
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.service;
+
+import com.example.common.Routes;
+import com.example.common.TraceContext;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.rsocket.ConnectionSetupPayload;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.SocketAcceptor;
+import io.rsocket.metadata.CompositeMetadata;
+import io.rsocket.plugins.SocketAcceptorInterceptor;
+import io.rsocket.util.ByteBufPayload;
+import io.rsocket.util.RSocketProxy;
+import lombok.EqualsAndHashCode;
+import lombok.SneakyThrows;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Answers a request from a cache when an identical one was answered within its route's time to live.
+ */
+class ResponseCache implements SocketAcceptorInterceptor {
+
+    private final Map<String, AsyncCache<Key, List<CachedPayload>>> routes;
+
+    ResponseCache(ResponseCacheProperties properties, MeterRegistry registry) {
+        this.routes = properties
+                .getRoutes()
+                .entrySet()
+                .stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> {
+                    AsyncCache<Key, List<CachedPayload>> cache = Caffeine.newBuilder()
+                            .maximumSize(entry.getValue().getMaximumSize())
+                            .expireAfterWrite(entry.getValue().getTimeToLive())
+                            .recordStats()
+                            .buildAsync();
+                    CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "rsocket.response.cache", "route", entry.getKey());
+                    return cache;
+                }));
+    }
+
+    @Override
+    public SocketAcceptor apply(SocketAcceptor acceptor) {
+        return (setup, sendingSocket) -> {
+            var credentials = digest(setup);
+            return acceptor
+                    .accept(setup, sendingSocket)
+                    .map(rsocket -> new CachingRSocket(rsocket, credentials));
+        };
+    }
+
+    // stands in for whoever set the connection up, without keeping their credentials around
+    @SneakyThrows
+    private static byte[] digest(ConnectionSetupPayload setup) {
+        var sha = MessageDigest.getInstance("SHA-256");
+        if (setup.hasMetadata()) {
+            sha.update(bytes(setup.sliceMetadata()));
+        }
+        return sha.digest();
+    }
+
+    private static byte[] bytes(ByteBuf buffer) {
+        return ByteBufUtil.getBytes(buffer);
+    }
+
+    private class CachingRSocket extends RSocketProxy {
+
+        private final byte[] credentials;
+
+        CachingRSocket(RSocket source, byte[] credentials) {
+            super(source);
+            this.credentials = credentials;
+        }
+
+        @Override
+        public Mono<Payload> requestResponse(Payload payload) {
+            var cache = routes.get(Routes.of(payload));
+            if (cache == null) {
+                return super.requestResponse(payload);
+            }
+            return this.cached(cache, payload, () -> super.requestResponse(payload))
+                    .flatMapMany(Flux::fromIterable)
+                    .next()
+                    .map(CachedPayload::payload);
+        }
+
+        @Override
+        public Flux<Payload> requestStream(Payload payload) {
+            var cache = routes.get(Routes.of(payload));
+            if (cache == null) {
+                return super.requestStream(payload);
+            }
+            return this.cached(cache, payload, () -> super.requestStream(payload))
+                    .flatMapMany(Flux::fromIterable)
+                    .map(CachedPayload::payload);
+        }
+
+        private Mono<List<CachedPayload>> cached(
+                AsyncCache<Key, List<CachedPayload>> cache, Payload payload, Supplier<Publisher<Payload>> source) {
+            return Mono.deferWithContext(context -> {
+                var key = new Key(this.credentials, payload);
+                var executed = new AtomicBoolean();
+                // runs once for all identical requests, whoever asked first going away does not stop it;
+                // it is subscribed to apart from the caller, so it is handed the caller's security context
+                var response = cache.get(key, (k, executor) -> {
+                    executed.set(true);
+                    return Flux.from(source.get())
+                            .map(CachedPayload::of)
+                            .collectList()
+                            .subscriberContext(context)
+                            .toFuture();
+                });
+                if (!executed.get()) {
+                    payload.release();
+                }
+                // a copy, so a subscriber cancelling does not cancel the shared result
+                return Mono.fromFuture(response.copy());
+            });
+        }
+    }
+
+    @EqualsAndHashCode
+    private static final class Key {
+
+        private final byte[] credentials;
+        private final byte[] metadata;
+        private final byte[] data;
+
+        Key(byte[] credentials, Payload payload) {
+            this.credentials = credentials;
+            this.metadata = payload.hasMetadata() ? metadata(payload.sliceMetadata()) : null;
+            this.data = bytes(payload.sliceData());
+        }
+
+        // without the trace context, which is different on every request
+        private static byte[] metadata(ByteBuf metadata) {
+            var kept = Unpooled.buffer(metadata.readableBytes());
+            try {
+                for (var entry : new CompositeMetadata(metadata, false)) {
+                    if (!TraceContext.MIME_TYPE.equals(entry.getMimeType())) {
+                        var content = entry.getContent();
+                        kept.writeCharSequence(String.valueOf(entry.getMimeType()), StandardCharsets.UTF_8);
+                        kept.writeInt(content.readableBytes()).writeBytes(content, content.readerIndex(), content.readableBytes());
+                    }
+                }
+            }
+            catch (RuntimeException ex) {
+                // not composite metadata, all of it is the key
+                return bytes(metadata);
+            }
+            return bytes(kept);
+        }
+    }
+
+    // a response copied off the buffer it arrived in, so it outlives the exchange
+    private static final class CachedPayload {
+
+        private final byte[] data;
+        private final byte[] metadata;
+
+        private CachedPayload(byte[] data, byte[] metadata) {
+            this.data = data;
+            this.metadata = metadata;
+        }
+
+        static CachedPayload of(Payload payload) {
+            try {
+                return new CachedPayload(bytes(payload.sliceData()), payload.hasMetadata() ? bytes(payload.sliceMetadata()) : null);
+            }
+            finally {
+                payload.release();
+            }
+        }
+
+        Payload payload() {
+            return ByteBufPayload.create(this.data, this.metadata);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.rsocket.server.RSocketServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+@Configuration
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+@ConditionalOnProperty("service.rsocket.cache.enabled")
+class ResponseCacheConfiguration {
+
+    @Bean
+    ResponseCache responseCache(ResponseCacheProperties properties, MeterRegistry registry) {
+        return new ResponseCache(properties, registry);
+    }
+
+    // registered first so it ends up innermost, every request still goes through security before a hit
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    RSocketServerCustomizer responseCacheServerCustomizer(ResponseCache cache) {
+        return server -> server.interceptors(registry -> registry.forSocketAcceptor(cache));
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties("service.rsocket.cache")
+class ResponseCacheProperties {
+
+    private boolean enabled = false;
+
+    // routes that are not listed here are never cached; a stream route is collected whole before
+    // it is replayed, so only list short, finite ones
+    private Map<String, Route> routes = new HashMap<>(Map.of("greetings.single", new Route()));
+
+    @Data
+    static class Route {
+
+        private long maximumSize = 10_000;
+
+        // greetings carry a timestamp, so by default they are not reused for long
+        private Duration timeToLive = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.rsocket.core.Resume;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.rsocket.server.RSocketServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// only clients that ask to be resumable in their SETUP frame get a session
+@Configuration
+@EnableConfigurationProperties(ResumeProperties.class)
+@ConditionalOnProperty(value = "service.rsocket.resume.enabled", matchIfMissing = true)
+class ResumeConfiguration {
+
+    @Bean
+    RSocketServerCustomizer resumeServerCustomizer(ResumeProperties properties, MeterRegistry registry) {
+        var stores = new MeteredResumableFramesStore.Factory(registry, properties.getMaxBufferSize());
+        return server -> server.resume(new Resume()
+                .sessionDuration(properties.getSessionDuration())
+                .streamTimeout(properties.getStreamTimeout())
+                // frames the client acknowledged in its keepalives are released right away
+                .cleanupStoreOnKeepAlive()
+                .storeFactory(stores::create));
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * How long a dropped connection's session, and the frames its client has not acknowledged yet,
+ * are kept around for the client to resume.
+ */
+@Data
+@ConfigurationProperties("service.rsocket.resume")
+class ResumeProperties {
+
+    private boolean enabled = true;
+
+    private Duration sessionDuration = Duration.ofMinutes(2);
+
+    private Duration streamTimeout = Duration.ofSeconds(10);
+
+    // per session; once full the oldest frames are dropped and that session can no longer resume
+    private int maxBufferSize = 1024 * 1024;
+}
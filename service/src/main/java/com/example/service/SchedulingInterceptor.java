@@ -0,0 +1,49 @@
+package com.example.service;
+
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.plugins.RSocketInterceptor;
+import io.rsocket.util.RSocketProxy;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Subscribes to every request on {@code scheduler} instead of the connection's event loop, so
+ * the handler invocation, and whatever its publisher does when asked for data, happen there.
+ */
+class SchedulingInterceptor implements RSocketInterceptor {
+
+    private final Scheduler scheduler;
+
+    SchedulingInterceptor(Scheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public RSocket apply(RSocket rsocket) {
+        return new RSocketProxy(rsocket) {
+
+            @Override
+            public Mono<Void> fireAndForget(Payload payload) {
+                return Mono.defer(() -> this.source.fireAndForget(payload)).subscribeOn(scheduler);
+            }
+
+            @Override
+            public Mono<Payload> requestResponse(Payload payload) {
+                return Mono.defer(() -> this.source.requestResponse(payload)).subscribeOn(scheduler);
+            }
+
+            @Override
+            public Flux<Payload> requestStream(Payload payload) {
+                return Flux.defer(() -> this.source.requestStream(payload)).subscribeOn(scheduler);
+            }
+
+            @Override
+            public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
+                return Flux.defer(() -> this.source.requestChannel(payloads)).subscribeOn(scheduler);
+            }
+        };
+    }
+}
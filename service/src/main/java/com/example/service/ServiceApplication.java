@@ -1,18 +1,24 @@
 package com.example.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.rsocket.RSocketRequester;
 import org.springframework.messaging.rsocket.RSocketStrategies;
 import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
-import org.springframework.security.config.Customizer;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
 import org.springframework.security.config.annotation.rsocket.RSocketSecurity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.MapReactiveUserDetailsService;
@@ -21,12 +27,15 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.messaging.handler.invocation.reactive.AuthenticationPrincipalArgumentResolver;
 import org.springframework.security.rsocket.core.PayloadSocketAcceptorInterceptor;
 import org.springframework.stereotype.Controller;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.stream.Stream;
+import java.util.List;
+import java.util.function.Function;
 
 @SpringBootApplication
 public class ServiceApplication {
@@ -39,20 +48,37 @@ public class ServiceApplication {
 
 
 @Configuration
+@EnableConfigurationProperties(AuthenticationCacheProperties.class)
 class SecurityConfiguration {
 
 
     @Bean
-    PayloadSocketAcceptorInterceptor interceptor(RSocketSecurity security) {
+    @ConditionalOnProperty(value = "service.security.authentication", havingValue = "simple", matchIfMissing = true)
+    PayloadSocketAcceptorInterceptor interceptor(
+            RSocketSecurity security,
+            CachingReactiveAuthenticationManager authenticationManager) {
         return security
-                .simpleAuthentication(Customizer.withDefaults())
-                .authorizePayload(ap -> ap.anyExchange().authenticated())
+                .simpleAuthentication(spec -> spec.authenticationManager(authenticationManager))
+                .authorizePayload(ap -> ap
+                        .route("management.*").hasRole("ADMIN")
+                        .anyExchange().authenticated())
                 .build();
     }
 
     @Bean
     MapReactiveUserDetailsService authentication() {
-        return new MapReactiveUserDetailsService(User.withDefaultPasswordEncoder().username("jlong").password("pw").roles("USER").build());
+        return new MapReactiveUserDetailsService(
+                User.withDefaultPasswordEncoder().username("jlong").password("pw").roles("USER").build(),
+                User.withDefaultPasswordEncoder().username("admin").password("pw").roles("USER", "ADMIN").build());
+    }
+
+    @Bean
+    CachingReactiveAuthenticationManager cachingAuthenticationManager(
+            MapReactiveUserDetailsService users,
+            AuthenticationCacheProperties properties,
+            MeterRegistry registry) {
+        return new CachingReactiveAuthenticationManager(
+                new UserDetailsRepositoryReactiveAuthenticationManager(users), properties, registry);
     }
 
     @Bean
@@ -60,6 +86,8 @@ class SecurityConfiguration {
         var rmh = new RSocketMessageHandler();
         rmh.getArgumentResolverConfigurer().addCustomResolver(new AuthenticationPrincipalArgumentResolver());
         rmh.setRSocketStrategies(strategies);
+        // for peers whose SETUP frame does not pick a data mime type (CBOR and JSON are both decodable)
+        rmh.setDefaultDataMimeType(MimeTypeUtils.APPLICATION_JSON);
         return rmh;
     }
 }
@@ -79,36 +107,109 @@ class GreetingRequest {
     private String name;
 }
 
-@Controller
 @Log4j2
+@Controller
+@RequiredArgsConstructor
 class GreetingController {
 
+    private final GreetingsProperties properties;
+    private final ClientHealthMonitor healthMonitor;
+    private final SlowConsumerGuard slowConsumers;
+
     @MessageMapping("greetings")
     Flux<GreetingResponse> greet(
             RSocketRequester clientRSocketConnection,
-            @AuthenticationPrincipal Mono<UserDetails> user) {
+            @AuthenticationPrincipal Mono<UserDetails> user,
+            @Header(name = StreamOptions.HEADER, required = false) StreamOptions options,
+            @Payload(required = false) Mono<GreetingRequest> request) {
+        var limited = this.properties.limit(options);
+        return named(user, request).flatMapMany(gr -> this.guarded(clientRSocketConnection, this.greetings(gr, limited)));
+    }
+
+    // the same stream, up to packSize greetings a payload: one frame, one encode and one flush per
+    // pack instead of per greeting; a pack that is not full goes out once it has waited lingerMillis
+    @MessageMapping("greetings.batched")
+    Flux<List<GreetingResponse>> greetBatched(
+            RSocketRequester clientRSocketConnection,
+            @AuthenticationPrincipal Mono<UserDetails> user,
+            @Header(name = StreamOptions.HEADER, required = false) StreamOptions options,
+            @Payload(required = false) Mono<GreetingRequest> request) {
+        var limited = this.properties.limit(options);
+        return named(user, request).flatMapMany(gr -> this.guarded(clientRSocketConnection, this.packed(this.greetings(gr, limited), limited)));
+    }
+
+    // a single greeting: no stream to set up, no health subscription on the requester, no pacing
+    @MessageMapping("greetings.single")
+    Mono<GreetingResponse> greetOne(
+            @AuthenticationPrincipal Mono<UserDetails> user,
+            @Payload(required = false) Mono<GreetingRequest> request) {
+        return named(user, request).map(gr -> greeting(gr.getName()));
+    }
+
+    // nothing goes back to the caller, the greeting is only recorded
+    @MessageMapping("greetings.ingest")
+    Mono<Void> ingest(
+            @AuthenticationPrincipal Mono<UserDetails> user,
+            @Payload(required = false) Mono<GreetingRequest> request) {
+        return named(user, request)
+                .doOnNext(gr -> log.debug(greeting(gr.getName()).getMessage()))
+                .then();
+    }
+
+    // one response per request, in the order the requests came in, which is how callers correlate them
+    @MessageMapping("greetings.channel")
+    Flux<GreetingResponse> greetAll(Flux<GreetingRequest> requests) {
+        return requests.map(request -> greeting(request.getName()));
+    }
+
+    // the authenticated user's name wins over whatever the request carries
+    private static Mono<GreetingRequest> named(Mono<UserDetails> user, Mono<GreetingRequest> request) {
         return user
                 .map(UserDetails::getUsername)
                 .map(GreetingRequest::new)
-                .flatMapMany(gr -> this.greet(clientRSocketConnection, gr));
+                .switchIfEmpty(request);
     }
 
-    private Flux<GreetingResponse> greet(
-            RSocketRequester clientRSocketConnection, GreetingRequest requests) {
+    private static GreetingResponse greeting(String name) {
+        return new GreetingResponse("ni hao " + name + " @ " + Instant.now() + "!");
+    }
 
-        var clientHealth = clientRSocketConnection
-                .route("health")
-                .retrieveFlux(ClientHealthState.class)
-                .filter(chs -> !chs.isHealthy())
-                .doOnNext(chs -> log.info("not healthy! "));
+    private Flux<GreetingResponse> greetings(GreetingRequest requests, StreamOptions options) {
 
+        // generated as the subscriber asks, on whichever thread asks
         var greetings = Flux
-                .fromStream(Stream
-                        .generate(() -> new GreetingResponse("ni hao " + requests.getName() + " @ " + Instant.now() + "!")))
-                .take(100)
-                .delayElements(Duration.ofSeconds(1));
+                .<GreetingResponse>generate(sink -> sink.next(greeting(requests.getName())))
+                .take(options.getCount());
+
+        // without an interval the stream is paced only by the subscriber's request(n), with one a
+        // batch is generated when asked for and held back for an interval, nothing piles up
+        return options.getIntervalMillis() == 0 ? greetings : greetings
+                .buffer(options.getBatchSize())
+                .delayElements(Duration.ofMillis(options.getIntervalMillis()))
+                .flatMapIterable(Function.identity());
+    }
+
+    private Flux<List<GreetingResponse>> packed(Flux<GreetingResponse> greetings, StreamOptions options) {
+        // generated on demand, so a pack is always full but for the last
+        if (options.getIntervalMillis() == 0) {
+            return greetings.buffer(options.getPackSize());
+        }
+        // bufferTimeout sends a lingering pack whether it was asked for or not, and fails when its
+        // timer fires with no demand: the bounded buffer in front of the consumer always has some
+        return this.slowConsumers.bounded(
+                greetings.bufferTimeout(options.getPackSize(), Duration.ofMillis(options.getLingerMillis())),
+                options.getPackSize());
+    }
+
+    private <T> Flux<T> guarded(RSocketRequester clientRSocketConnection, Flux<T> stream) {
 
-        return greetings.takeUntilOther(clientHealth);
+        var clientHealth = this.healthMonitor
+                .health(clientRSocketConnection)
+                .filter(chs -> !chs.isHealthy());
+
+        return stream
+                .takeUntilOther(clientHealth)
+                .transform(this.slowConsumers::watch);
     }
 }
 
@@ -117,4 +218,19 @@ class GreetingController {
 @NoArgsConstructor
 class ClientHealthState {
     private boolean healthy;
-}
\ No newline at end of file
+}
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+class StreamOptions {
+
+    static final String HEADER = "stream-options";
+    static final MimeType MIME_TYPE = MimeTypeUtils.parseMimeType("application/vnd.greetings.stream+json");
+
+    private Integer count;
+    private Long intervalMillis;
+    private Integer batchSize;
+    private Integer packSize;
+    private Long lingerMillis;
+}
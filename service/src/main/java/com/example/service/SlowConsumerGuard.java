@@ -0,0 +1,159 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.rsocket.exceptions.CanceledException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a slow or stalled consumer from holding memory, and counts or cancels streams stalled past
+ * {@code stallThreshold}.
+ */
+@Component
+class SlowConsumerGuard implements DisposableBean {
+
+    private final GreetingsProperties properties;
+    private final Scheduler scheduler;
+    private final Set<Watch> watches = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger stalled = new AtomicInteger();
+    private final Counter dropped;
+    private final Counter detected;
+    private final Counter cancelled;
+    private final Disposable checks;
+
+    @Autowired
+    SlowConsumerGuard(GreetingsProperties properties, MeterRegistry registry) {
+        this(properties, registry, Schedulers.parallel());
+    }
+
+    SlowConsumerGuard(GreetingsProperties properties, MeterRegistry registry, Scheduler scheduler) {
+        this.properties = properties;
+        this.scheduler = scheduler;
+        this.dropped = registry.counter("rsocket.stream.dropped");
+        this.detected = registry.counter("rsocket.stream.stalled");
+        this.cancelled = registry.counter("rsocket.stream.stalled.cancelled");
+        Gauge.builder("rsocket.stream.stalled.active", this.stalled, AtomicInteger::get)
+                .description("streams whose consumer is currently past the stall threshold")
+                .register(registry);
+        var period = properties.getStallThreshold().dividedBy(2).toNanos();
+        this.checks = period == 0 ? null :
+                scheduler.schedulePeriodically(this::check, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    // for sources that cannot be back-pressured: anything a consumer did not ask for waits here,
+    // within the limit; every item stands for batchSize greetings
+    <T> Flux<T> bounded(Flux<T> source, int batchSize) {
+        var limit = Math.max(1, this.properties.getMaxBuffered() / batchSize);
+        switch (this.properties.getOverflow()) {
+            case LATEST:
+                return source.onBackpressureBuffer(1, item -> this.dropped.increment(batchSize), BufferOverflowStrategy.DROP_OLDEST);
+            case ERROR:
+                return source.onBackpressureBuffer(limit, item -> this.dropped.increment(batchSize), BufferOverflowStrategy.ERROR);
+            default:
+                return source.onBackpressureBuffer(limit, item -> this.dropped.increment(batchSize), BufferOverflowStrategy.DROP_OLDEST);
+        }
+    }
+
+    // goes last, so the demand it sees is the consumer's own
+    <T> Flux<T> watch(Flux<T> stream) {
+        if (this.checks == null) {
+            return stream;
+        }
+        return Flux.defer(() -> {
+            var watch = new Watch();
+            return stream
+                    .takeUntilOther(watch.cancel)
+                    .doOnSubscribe(subscription -> {
+                        watch.idle(this.now());
+                        this.watches.add(watch);
+                    })
+                    .doOnRequest(watch::request)
+                    .doOnNext(value -> watch.delivered(this.now()))
+                    .doFinally(signal -> {
+                        this.watches.remove(watch);
+                        watch.resumed();
+                    });
+        });
+    }
+
+    private void check() {
+        var now = this.now();
+        var threshold = this.properties.getStallThreshold().toNanos();
+        for (var watch : this.watches) {
+            var idleSince = watch.idleSince.get();
+            if (idleSince != Watch.ACTIVE && now - idleSince > threshold && watch.reported.compareAndSet(false, true)) {
+                this.stalled.incrementAndGet();
+                this.detected.increment();
+                if (this.properties.isCancelStalled()) {
+                    this.cancelled.increment();
+                    watch.cancel.onError(new CanceledException("nothing was requested for " + Duration.ofNanos(now - idleSince)));
+                }
+            }
+        }
+    }
+
+    private long now() {
+        return this.scheduler.now(TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (this.checks != null) {
+            this.checks.dispose();
+        }
+    }
+
+    private class Watch {
+
+        private static final long ACTIVE = Long.MIN_VALUE;
+
+        private final AtomicLong outstanding = new AtomicLong();
+        // when demand last ran out, ACTIVE while there is some
+        private final AtomicLong idleSince = new AtomicLong(ACTIVE);
+        private final AtomicBoolean reported = new AtomicBoolean();
+        private final MonoProcessor<Void> cancel = MonoProcessor.create();
+
+        void idle(long now) {
+            this.idleSince.set(now);
+        }
+
+        void request(long n) {
+            this.outstanding.getAndUpdate(value -> Operators.addCap(value, n));
+            this.idleSince.set(ACTIVE);
+            this.resumed();
+        }
+
+        void delivered(long now) {
+            if (this.outstanding.updateAndGet(value -> value == Long.MAX_VALUE ? value : value - 1) == 0
+                    && this.idleSince.compareAndSet(ACTIVE, now)
+                    && this.outstanding.get() > 0) {
+                // a request(n) came in between the two
+                this.idleSince.set(ACTIVE);
+            }
+        }
+
+        void resumed() {
+            if (this.reported.compareAndSet(true, false)) {
+                stalled.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket holding up to {@code burst} tokens and refilled at {@code ratePerSecond}.
+ */
+class TokenBucket {
+
+    private final long interval;
+    private final long tolerance;
+    private final AtomicLong full;
+
+    TokenBucket(double ratePerSecond, int burst, long now) {
+        this.interval = (long) (1_000_000_000L / ratePerSecond);
+        this.tolerance = this.interval * Math.max(1, burst);
+        this.full = new AtomicLong(now);
+    }
+
+    boolean tryTake(long now) {
+        while (true) {
+            var full = this.full.get();
+            var next = Math.max(full, now) + this.interval;
+            if (next - now > this.tolerance) {
+                return false;
+            }
+            if (this.full.compareAndSet(full, next)) {
+                return true;
+            }
+        }
+    }
+}
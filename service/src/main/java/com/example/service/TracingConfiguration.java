@@ -0,0 +1,37 @@
+package com.example.service;
+
+import com.example.common.LoggingSpanExporter;
+import com.example.common.SpanExporter;
+import com.example.common.TracingInterceptor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.rsocket.server.RSocketServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(TracingProperties.class)
+@ConditionalOnProperty("service.rsocket.tracing.enabled")
+class TracingConfiguration {
+
+    // an InMemorySpanExporter bean takes its place in tests
+    @Bean
+    @ConditionalOnMissingBean
+    SpanExporter spanExporter() {
+        return new LoggingSpanExporter();
+    }
+
+    @Bean
+    TracingInterceptor tracingInterceptor(TracingProperties properties, SpanExporter exporter) {
+        return new TracingInterceptor("service", properties.getSampleRate(), exporter);
+    }
+
+    // the requester side covers the health streams the service opens on its clients
+    @Bean
+    RSocketServerCustomizer tracingServerCustomizer(TracingInterceptor tracing) {
+        return server -> server.interceptors(registry -> registry
+                .forResponder(tracing::responder)
+                .forRequester(tracing::requester));
+    }
+}
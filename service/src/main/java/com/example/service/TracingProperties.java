@@ -0,0 +1,18 @@
+package com.example.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Trace context in the metadata of every request this service answers or sends. The sample rate
+ * only applies to traces that start here, a request that arrives with a decision keeps it.
+ */
+@Data
+@ConfigurationProperties("service.rsocket.tracing")
+class TracingProperties {
+
+    private boolean enabled = false;
+
+    // the fraction of traces timed and exported, the rest only pass the decision on
+    private double sampleRate = 0.01;
+}
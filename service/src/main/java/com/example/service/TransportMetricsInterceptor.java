@@ -0,0 +1,113 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.rsocket.DuplexConnection;
+import io.rsocket.core.RSocketServer;
+import io.rsocket.plugins.DuplexConnectionInterceptor;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.rsocket.server.RSocketServerCustomizer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the connections, frames and bytes of one transport.
+ */
+class TransportMetricsInterceptor implements DuplexConnectionInterceptor, RSocketServerCustomizer {
+
+    private final AtomicInteger connections;
+    private final Counter framesIn;
+    private final Counter framesOut;
+    private final Counter bytesIn;
+    private final Counter bytesOut;
+
+    TransportMetricsInterceptor(String transport, MeterRegistry registry) {
+        var tags = Tags.of("transport", transport);
+        this.connections = registry.gauge("rsocket.transport.connections", tags, new AtomicInteger());
+        this.framesIn = registry.counter("rsocket.transport.frames", tags.and("direction", "inbound"));
+        this.framesOut = registry.counter("rsocket.transport.frames", tags.and("direction", "outbound"));
+        this.bytesIn = Counter.builder("rsocket.transport.bytes").tags(tags.and("direction", "inbound")).baseUnit("bytes").register(registry);
+        this.bytesOut = Counter.builder("rsocket.transport.bytes").tags(tags.and("direction", "outbound")).baseUnit("bytes").register(registry);
+    }
+
+    @Override
+    public void customize(RSocketServer server) {
+        server.interceptors(registry -> registry.forConnection(this));
+    }
+
+    // SOURCE is the physical connection, the others are the streams multiplexed over it
+    @Override
+    public DuplexConnection apply(Type type, DuplexConnection connection) {
+        return type == Type.SOURCE ? new MeteredConnection(connection) : connection;
+    }
+
+    private void received(ByteBuf frame) {
+        this.framesIn.increment();
+        this.bytesIn.increment(frame.readableBytes());
+    }
+
+    private void sent(ByteBuf frame) {
+        this.framesOut.increment();
+        this.bytesOut.increment(frame.readableBytes());
+    }
+
+    private class MeteredConnection implements DuplexConnection {
+
+        private final DuplexConnection source;
+
+        MeteredConnection(DuplexConnection source) {
+            this.source = source;
+            connections.incrementAndGet();
+            source.onClose()
+                    .doFinally(signal -> connections.decrementAndGet())
+                    .onErrorResume(ex -> Mono.empty())
+                    .subscribe();
+        }
+
+        @Override
+        public Mono<Void> send(Publisher<ByteBuf> frames) {
+            return this.source.send(Flux.from(frames).doOnNext(TransportMetricsInterceptor.this::sent));
+        }
+
+        @Override
+        public Mono<Void> sendOne(ByteBuf frame) {
+            sent(frame);
+            return this.source.sendOne(frame);
+        }
+
+        @Override
+        public Flux<ByteBuf> receive() {
+            return this.source.receive().doOnNext(TransportMetricsInterceptor.this::received);
+        }
+
+        @Override
+        public ByteBufAllocator alloc() {
+            return this.source.alloc();
+        }
+
+        @Override
+        public double availability() {
+            return this.source.availability();
+        }
+
+        @Override
+        public Mono<Void> onClose() {
+            return this.source.onClose();
+        }
+
+        @Override
+        public void dispose() {
+            this.source.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return this.source.isDisposed();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Transports served next to the TCP server Boot binds on {@code spring.rsocket.server.port}, each off
+ * until enabled. All of them share the same routes, security, leases and resume settings.
+ */
+@Data
+@ConfigurationProperties("service.rsocket.transports")
+class TransportProperties {
+
+    private final Websocket websocket = new Websocket();
+
+    private final Local local = new Local();
+
+    // for browsers and anything else that can only get through HTTP infrastructure
+    @Data
+    static class Websocket {
+
+        private boolean enabled;
+
+        // spring.rsocket.server.address when not set, and every interface when neither is
+        private String host;
+
+        private int port = 8889;
+    }
+
+    // for modules running in the same JVM, frames are handed over without touching a socket
+    @Data
+    static class Local {
+
+        private boolean enabled;
+
+        private String name = "greetings";
+    }
+}
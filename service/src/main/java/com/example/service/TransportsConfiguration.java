@@ -0,0 +1,100 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.rsocket.Closeable;
+import io.rsocket.core.RSocketServer;
+import io.rsocket.transport.ServerTransport;
+import io.rsocket.transport.local.LocalServerTransport;
+import io.rsocket.transport.netty.server.WebsocketServerTransport;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.rsocket.server.RSocketServerCustomizer;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(TransportProperties.class)
+class TransportsConfiguration {
+
+    // Boot's own server, the others get theirs in AdditionalTransports
+    @Bean
+    TransportMetricsInterceptor tcpTransportMetrics(MeterRegistry registry) {
+        return new TransportMetricsInterceptor("tcp", registry);
+    }
+
+    @Bean
+    AdditionalTransports additionalTransports(
+            RSocketMessageHandler handler,
+            ObjectProvider<RSocketServerCustomizer> customizers,
+            TransportProperties properties,
+            @Value("${spring.rsocket.server.address:0.0.0.0}") String serverAddress,
+            MeterRegistry registry) {
+        var transports = new LinkedHashMap<String, ServerTransport<?>>();
+        var websocket = properties.getWebsocket();
+        if (websocket.isEnabled()) {
+            var host = websocket.getHost() == null ? serverAddress : websocket.getHost();
+            transports.put("websocket", WebsocketServerTransport.create(host, websocket.getPort()));
+        }
+        var local = properties.getLocal();
+        if (local.isEnabled()) {
+            transports.put("local", LocalServerTransport.create(local.getName()));
+        }
+        return new AdditionalTransports(handler, customizers, transports, registry);
+    }
+}
+
+/**
+ * Binds one {@link RSocketServer} per transport, configured with every {@link RSocketServerCustomizer}
+ * Boot applies to its TCP server.
+ */
+@Log4j2
+class AdditionalTransports implements SmartLifecycle {
+
+    private final RSocketMessageHandler handler;
+    private final ObjectProvider<RSocketServerCustomizer> customizers;
+    private final Map<String, ServerTransport<?>> transports;
+    private final MeterRegistry registry;
+    private final List<Closeable> servers = new ArrayList<>();
+
+    AdditionalTransports(RSocketMessageHandler handler, ObjectProvider<RSocketServerCustomizer> customizers,
+                         Map<String, ServerTransport<?>> transports, MeterRegistry registry) {
+        this.handler = handler;
+        this.customizers = customizers;
+        this.transports = transports;
+        this.registry = registry;
+    }
+
+    @Override
+    public void start() {
+        this.transports.forEach((name, transport) -> {
+            var server = RSocketServer.create(this.handler.responder());
+            this.customizers
+                    .orderedStream()
+                    .filter(customizer -> !(customizer instanceof TransportMetricsInterceptor))
+                    .forEach(customizer -> customizer.customize(server));
+            new TransportMetricsInterceptor(name, this.registry).customize(server);
+            this.servers.add(server.bind(transport).block());
+            log.info("RSocket server started on " + name);
+        });
+    }
+
+    @Override
+    public void stop() {
+        this.servers.forEach(Closeable::dispose);
+        this.servers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return !this.servers.isEmpty();
+    }
+}
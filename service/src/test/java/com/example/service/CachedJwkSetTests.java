@@ -0,0 +1,91 @@
+package com.example.service;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachedJwkSetTests {
+
+    private final AtomicReference<JWKSet> published = new AtomicReference<>();
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    private DisposableServer server;
+    private CachedJwkSet keys;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        this.published.set(new JWKSet(key("first").toPublicJWK()));
+        this.server = HttpServer
+                .create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes
+                        .get("/jwks", (request, response) -> {
+                            this.fetches.incrementAndGet();
+                            return response.sendString(Mono.fromSupplier(() -> this.published.get().toString()));
+                        })
+                        .get("/stalled", (request, response) -> response.sendString(Mono.never())))
+                .bindNow();
+        this.keys = new CachedJwkSet(URI.create("http://localhost:" + this.server.port() + "/jwks"),
+                Duration.ofHours(1), Duration.ZERO, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.keys.destroy();
+        this.server.disposeNow();
+    }
+
+    @Test
+    void answersKnownKeysFromMemory() throws Exception {
+        var jwt = jwt("first");
+        assertThat(this.keys.apply(jwt).collectList().block(Duration.ofSeconds(5))).hasSize(1);
+        var fetched = this.fetches.get();
+
+        assertThat(this.keys.apply(jwt).collectList().block(Duration.ofSeconds(5))).hasSize(1);
+        assertThat(this.fetches).hasValue(fetched);
+    }
+
+    @Test
+    void fetchesAgainForAKeyItHasNotSeen() throws Exception {
+        assertThat(this.keys.apply(jwt("first")).collectList().block(Duration.ofSeconds(5))).hasSize(1);
+
+        this.published.set(new JWKSet(key("rotated").toPublicJWK()));
+        assertThat(this.keys.apply(jwt("rotated")).collectList().block(Duration.ofSeconds(5))).hasSize(1);
+    }
+
+    @Test
+    void givesUpOnAnIssuerThatDoesNotAnswer() {
+        var stalled = new CachedJwkSet(URI.create("http://localhost:" + this.server.port() + "/stalled"),
+                Duration.ofHours(1), Duration.ZERO, Duration.ofMillis(200));
+
+        assertThat(stalled.apply(jwt("first")).collectList().block(Duration.ofSeconds(5))).isEmpty();
+        stalled.destroy();
+    }
+
+    private static RSAKey key(String id) throws Exception {
+        return new RSAKeyGenerator(2048).keyID(id).generate();
+    }
+
+    private static SignedJWT jwt(String keyId) {
+        return new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(keyId).build(),
+                new JWTClaimsSet.Builder().subject("jlong").build());
+    }
+}
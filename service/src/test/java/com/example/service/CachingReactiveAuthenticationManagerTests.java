@@ -0,0 +1,70 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.MapReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachingReactiveAuthenticationManagerTests {
+
+    private final AtomicInteger delegateCalls = new AtomicInteger();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final CachingReactiveAuthenticationManager manager = new CachingReactiveAuthenticationManager(
+            counting(new UserDetailsRepositoryReactiveAuthenticationManager(new MapReactiveUserDetailsService(
+                    User.withDefaultPasswordEncoder().username("jlong").password("pw").roles("USER").build()))),
+            new AuthenticationCacheProperties(), this.registry);
+
+    @Test
+    void cachesSuccessfulAuthentications() {
+        StepVerifier.create(this.manager.authenticate(token("jlong", "pw")))
+                .expectNextMatches(a -> a.isAuthenticated() && a.getCredentials() == null)
+                .verifyComplete();
+        StepVerifier.create(this.manager.authenticate(token("jlong", "pw")))
+                .expectNextCount(1)
+                .verifyComplete();
+        assertThat(this.delegateCalls).hasValue(1);
+    }
+
+    @Test
+    void neverCachesAWrongPassword() {
+        StepVerifier.create(this.manager.authenticate(token("jlong", "pw"))).expectNextCount(1).verifyComplete();
+        StepVerifier.create(this.manager.authenticate(token("jlong", "nope")))
+                .verifyError(BadCredentialsException.class);
+        assertThat(this.delegateCalls).hasValue(2);
+    }
+
+    @Test
+    void reusesThePrincipalBoundToTheConnection() {
+        var connection = this.manager.authenticate(token("jlong", "pw")).block();
+        StepVerifier
+                .create(this.manager
+                        .authenticate(token("jlong", "pw"))
+                        .subscriberContext(ReactiveSecurityContextHolder.withAuthentication(connection)))
+                .expectNext(connection)
+                .verifyComplete();
+        assertThat(this.registry.get("rsocket.authentication.connection.reuse").counter().count()).isEqualTo(1);
+    }
+
+    private ReactiveAuthenticationManager counting(ReactiveAuthenticationManager delegate) {
+        return authentication -> {
+            this.delegateCalls.incrementAndGet();
+            return delegate.authenticate(authentication);
+        };
+    }
+
+    private static UsernamePasswordAuthenticationToken token(String username, String password) {
+        return new UsernamePasswordAuthenticationToken(username, password);
+    }
+}
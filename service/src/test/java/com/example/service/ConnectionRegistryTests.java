@@ -0,0 +1,116 @@
+package com.example.service;
+
+import com.example.common.Routes;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.SocketAcceptor;
+import io.rsocket.core.RSocketConnector;
+import io.rsocket.core.RSocketServer;
+import io.rsocket.metadata.CompositeMetadataCodec;
+import io.rsocket.metadata.TaggingMetadataCodec;
+import io.rsocket.metadata.WellKnownMimeType;
+import io.rsocket.plugins.SocketAcceptorInterceptor;
+import io.rsocket.transport.local.LocalServerTransport;
+import io.rsocket.util.DefaultPayload;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConnectionRegistryTests {
+
+    private final ConnectionRegistry registry = new ConnectionRegistry(
+            RSocketMetricsInterceptorTests.routes(new RSocketMetricsInterceptorTests.GreetingsController()));
+
+    @Test
+    void tracksAConnectionFromSetupToClose() {
+        var transport = LocalServerTransport.createEphemeral();
+        var server = RSocketServer
+                .create(SocketAcceptor.forRequestStream(payload -> Flux.range(0, 100).map(i -> DefaultPayload.create("greeting " + i))))
+                .interceptors(interceptors -> interceptors
+                        .forSocketAcceptor(this.registry)
+                        .forSocketAcceptor(authenticatedAs("jlong")))
+                .bind(transport)
+                .block();
+        RSocket client = RSocketConnector.connectWith(transport.clientTransport()).block();
+
+        StepVerifier.create(client.requestStream(DefaultPayload.create(Unpooled.wrappedBuffer(new byte[]{'{', '}'}), routed("greetings"))), 3)
+                .expectNextCount(3)
+                .then(() -> {
+                    var connections = List.copyOf(this.registry.connections());
+                    assertThat(connections).hasSize(1);
+                    var connection = connections.get(0);
+                    assertThat(connection.getPrincipal()).isEqualTo("jlong");
+                    assertThat(connection.getInboundStreams()).isEqualTo(Map.of("greetings", 1L));
+                    // the three asked for have all been sent
+                    assertThat(connection.getInboundDemand()).isZero();
+                    assertThat(connection.getBytesIn()).isPositive();
+                    assertThat(connection.getBytesOut()).isPositive();
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+
+        client.dispose();
+        var remaining = Mono.fromCallable(() -> this.registry.connections().size())
+                .filter(size -> size == 0)
+                .repeatWhenEmpty(attempts -> attempts.delayElements(Duration.ofMillis(10)))
+                .block(Duration.ofSeconds(5));
+        assertThat(remaining).isZero();
+        server.dispose();
+    }
+
+    @Test
+    void countsRoutesNoHandlerIsMappedToAsOne() {
+        var transport = LocalServerTransport.createEphemeral();
+        var server = RSocketServer
+                .create(SocketAcceptor.forRequestStream(payload -> Flux.never()))
+                .interceptors(interceptors -> interceptors.forSocketAcceptor(this.registry))
+                .bind(transport)
+                .block();
+        RSocket client = RSocketConnector.connectWith(transport.clientTransport()).block();
+
+        var streams = Flux.merge(
+                client.requestStream(DefaultPayload.create(Unpooled.EMPTY_BUFFER, routed("made-up-1"))),
+                client.requestStream(DefaultPayload.create(Unpooled.EMPTY_BUFFER, routed("made-up-2"))),
+                client.requestStream(DefaultPayload.create(Unpooled.EMPTY_BUFFER, routed("greetings.jlong"))));
+        StepVerifier.create(streams)
+                .then(() -> {
+                    var inbound = Mono.fromCallable(() -> List.copyOf(this.registry.connections()).get(0).getInboundStreams())
+                            .filter(routes -> routes.values().stream().mapToLong(Long::longValue).sum() == 3)
+                            .repeatWhenEmpty(attempts -> attempts.delayElements(Duration.ofMillis(10)))
+                            .block(Duration.ofSeconds(5));
+                    assertThat(inbound).isEqualTo(Map.of(Routes.UNKNOWN, 2L, "greetings.{name}", 1L));
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+
+        client.dispose();
+        server.dispose();
+    }
+
+    // what the security interceptor, registered after the registry and so around it, hands down
+    private static SocketAcceptorInterceptor authenticatedAs(String principal) {
+        return acceptor -> (setup, sendingSocket) -> acceptor
+                .accept(setup, sendingSocket)
+                .subscriberContext(ReactiveSecurityContextHolder.withAuthentication(new TestingAuthenticationToken(principal, null)));
+    }
+
+    private static ByteBuf routed(String route) {
+        var allocator = ByteBufAllocator.DEFAULT;
+        var metadata = allocator.compositeBuffer();
+        CompositeMetadataCodec.encodeAndAddMetadata(metadata, allocator, WellKnownMimeType.MESSAGE_RSOCKET_ROUTING,
+                TaggingMetadataCodec.createRoutingMetadata(allocator, List.of(route)).getContent());
+        return metadata;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.service;
+
+import io.rsocket.metadata.WellKnownMimeType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.rsocket.context.LocalRSocketServerPort;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.security.rsocket.metadata.SimpleAuthenticationEncoder;
+import org.springframework.security.rsocket.metadata.UsernamePasswordMetadata;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+@SpringBootTest(properties = "spring.rsocket.server.port=0")
+class ConnectionsControllerTests {
+
+    private static final MimeType AUTHENTICATION = MimeTypeUtils.parseMimeType(WellKnownMimeType.MESSAGE_RSOCKET_AUTHENTICATION.getString());
+
+    @Autowired
+    private RSocketStrategies strategies;
+
+    @LocalRSocketServerPort
+    private int port;
+
+    @Test
+    void showsAnAdminEveryConnection() {
+        var credentials = new UsernamePasswordMetadata("admin", "pw");
+        var requester = this.connect(credentials);
+        StepVerifier.create(requester
+                        .route("management.connections")
+                        .metadata(credentials, AUTHENTICATION)
+                        .retrieveFlux(ConnectionInfo.class))
+                .expectNextMatches(connection -> "admin".equals(connection.getPrincipal()))
+                .verifyComplete();
+        requester.rsocket().dispose();
+    }
+
+    @Test
+    void turnsAwayAnyoneElse() {
+        var credentials = new UsernamePasswordMetadata("jlong", "pw");
+        var requester = this.connect(credentials);
+        StepVerifier.create(requester
+                        .route("management.connections")
+                        .metadata(credentials, AUTHENTICATION)
+                        .retrieveFlux(ConnectionInfo.class))
+                .expectError()
+                .verify(Duration.ofSeconds(5));
+        requester.rsocket().dispose();
+    }
+
+    private RSocketRequester connect(UsernamePasswordMetadata credentials) {
+        var strategies = this.strategies.mutate().encoder(new SimpleAuthenticationEncoder()).build();
+        return RSocketRequester
+                .builder()
+                .rsocketStrategies(strategies)
+                .setupMetadata(credentials, AUTHENTICATION)
+                .connectTcp("localhost", this.port)
+                .block(Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.util.DefaultPayload;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeaseAdmissionControllerTests {
+
+    private final LeaseProperties properties = new LeaseProperties();
+
+    private final LeaseAdmissionController controller;
+
+    private final RSocket rsocket;
+
+    LeaseAdmissionControllerTests() {
+        this.properties.setMaxInFlight(2);
+        this.controller = new LeaseAdmissionController(this.properties, new SimpleMeterRegistry());
+        this.rsocket = this.controller.apply(new RSocket() {
+
+            @Override
+            public Flux<Payload> requestStream(Payload payload) {
+                return Flux.never();
+            }
+        });
+    }
+
+    @Test
+    void budgetShrinksWithRequestsInFlight() {
+        assertThat(this.controller.budget()).isEqualTo(2);
+
+        var first = this.rsocket.requestStream(DefaultPayload.create("hi")).subscribe();
+        assertThat(this.controller.budget()).isEqualTo(1);
+
+        var second = this.rsocket.requestStream(DefaultPayload.create("hi")).subscribe();
+        assertThat(this.controller.budget()).isZero();
+
+        first.dispose();
+        second.dispose();
+        assertThat(this.controller.budget()).isEqualTo(2);
+    }
+
+    @Test
+    void leasesGrantTheAvailableCapacity() {
+        var leases = this.controller.leases().sender().apply(Optional.empty());
+        StepVerifier.create(leases.take(1))
+                .assertNext(lease -> assertThat(lease.getAllowedRequests()).isEqualTo(2))
+                .verifyComplete();
+    }
+}
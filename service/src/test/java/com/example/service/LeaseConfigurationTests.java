@@ -0,0 +1,91 @@
+package com.example.service;
+
+import com.example.common.ReverseLeases;
+import io.rsocket.lease.LeaseStats;
+import io.rsocket.lease.Leases;
+import io.rsocket.metadata.WellKnownMimeType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.rsocket.context.LocalRSocketServerPort;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
+import org.springframework.security.rsocket.metadata.SimpleAuthenticationEncoder;
+import org.springframework.security.rsocket.metadata.UsernamePasswordMetadata;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+// greetings streams go through the health check on the client, when it can be asked
+@SpringBootTest(properties = {
+        "spring.rsocket.server.port=0",
+        "service.rsocket.lease.enabled=true",
+        "service.greetings.count=5",
+        "service.greetings.interval=50ms"
+})
+class LeaseConfigurationTests {
+
+    private static final MimeType AUTHENTICATION = MimeTypeUtils.parseMimeType(WellKnownMimeType.MESSAGE_RSOCKET_AUTHENTICATION.getString());
+    private static final UsernamePasswordMetadata CREDENTIALS = new UsernamePasswordMetadata("jlong", "pw");
+
+    @Autowired
+    private RSocketStrategies strategies;
+
+    @LocalRSocketServerPort
+    private int port;
+
+    @Test
+    void streamsGreetingsToAPeerThatGrantsLeasesInReturn() {
+        var requester = this.connect(ReverseLeases::unlimited);
+        StepVerifier.create(this.greetings(requester)).expectNextCount(5).verifyComplete();
+        requester.rsocket().dispose();
+    }
+
+    @Test
+    void streamsGreetingsUncheckedToAPeerThatGrantsNoLeases() {
+        var requester = this.connect(Leases::create);
+        StepVerifier.create(this.greetings(requester)).expectNextCount(5).verifyComplete();
+        requester.rsocket().dispose();
+    }
+
+    private Flux<GreetingResponse> greetings(RSocketRequester requester) {
+        return requester
+                .route("greetings")
+                .metadata(CREDENTIALS, AUTHENTICATION)
+                .retrieveFlux(GreetingResponse.class);
+    }
+
+    private RSocketRequester connect(Supplier<Leases<? extends LeaseStats>> leases) {
+        var strategies = this.strategies.mutate().encoder(new SimpleAuthenticationEncoder()).build();
+        var requester = RSocketRequester
+                .builder()
+                .rsocketStrategies(strategies)
+                .setupMetadata(CREDENTIALS, AUTHENTICATION)
+                .rsocketConnector(connector -> connector
+                        .acceptor(RSocketMessageHandler.responder(strategies, new HealthController()))
+                        .lease(leases))
+                .connectTcp("localhost", this.port)
+                .block(Duration.ofSeconds(5));
+        // a request sent before the service's first lease arrives is rejected on this side
+        Mono.fromCallable(() -> requester.rsocket().availability() > 0)
+                .filter(available -> available)
+                .repeatWhenEmpty(attempts -> attempts.delayElements(Duration.ofMillis(10)))
+                .block(Duration.ofSeconds(5));
+        return requester;
+    }
+
+    static class HealthController {
+
+        @MessageMapping("health")
+        Flux<ClientHealthState> health() {
+            return Flux.interval(Duration.ofMillis(50)).map(tick -> new ClientHealthState(true));
+        }
+    }
+}
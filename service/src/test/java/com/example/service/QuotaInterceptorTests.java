@@ -0,0 +1,167 @@
+package com.example.service;
+
+import com.example.common.Routes;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.SocketAcceptor;
+import io.rsocket.core.RSocketConnector;
+import io.rsocket.core.RSocketServer;
+import io.rsocket.exceptions.RejectedException;
+import io.rsocket.metadata.CompositeMetadataCodec;
+import io.rsocket.metadata.TaggingMetadataCodec;
+import io.rsocket.metadata.WellKnownMimeType;
+import io.rsocket.transport.local.LocalServerTransport;
+import io.rsocket.util.DefaultPayload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuotaInterceptorTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger handled = new AtomicInteger();
+
+    private Disposable server;
+    private RSocket client;
+
+    @BeforeEach
+    void setUp() {
+        var properties = new QuotaProperties();
+        properties.getDefaults().setMaxConcurrentStreams(1);
+        properties.setIdleTimeout(Duration.ofMillis(200));
+        var single = new QuotaProperties.Quota();
+        single.setRequestsPerSecond(1);
+        single.setBurst(2);
+        properties.getRoutes().put("greetings.single", single);
+        var quotas = new QuotaInterceptor(properties, this.registry,
+                RSocketMetricsInterceptorTests.routes(new GreetingsController()));
+        var handler = SocketAcceptor.with(new RSocket() {
+
+            @Override
+            public Mono<Payload> requestResponse(Payload payload) {
+                handled.incrementAndGet();
+                payload.release();
+                return Mono.just(DefaultPayload.create("hello"));
+            }
+
+            @Override
+            public Flux<Payload> requestStream(Payload payload) {
+                handled.incrementAndGet();
+                payload.release();
+                return Flux.interval(Duration.ofMillis(10)).map(tick -> DefaultPayload.create("hello " + tick));
+            }
+        });
+        var transport = LocalServerTransport.createEphemeral();
+        this.server = RSocketServer
+                .create(handler)
+                .interceptors(interceptors -> interceptors.forSocketAcceptor(quotas))
+                .bind(transport)
+                .block();
+        this.client = RSocketConnector.connectWith(transport.clientTransport()).block();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.client.dispose();
+        this.server.dispose();
+    }
+
+    @Test
+    void rejectsRequestsOverTheRateBeforeTheHandler() {
+        for (var i = 0; i < 2; i++) {
+            StepVerifier.create(this.client.requestResponse(DefaultPayload.create(Unpooled.EMPTY_BUFFER, routed("greetings.single"))))
+                    .expectNextCount(1)
+                    .verifyComplete();
+        }
+        StepVerifier.create(this.client.requestResponse(DefaultPayload.create(Unpooled.EMPTY_BUFFER, routed("greetings.single"))))
+                .expectError(RejectedException.class)
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(this.handled).hasValue(2);
+        assertThat(this.registry.get("rsocket.quota.rejected").tags("route", "greetings.single", "reason", "rate").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void limitsConcurrentStreamsAndGivesTheSlotBack() {
+        StepVerifier.create(this.client.requestStream(DefaultPayload.create(Unpooled.EMPTY_BUFFER, routed("greetings"))))
+                .expectNextCount(1)
+                .then(() -> StepVerifier.create(this.client.requestStream(DefaultPayload.create(Unpooled.EMPTY_BUFFER, routed("greetings"))))
+                        .expectError(RejectedException.class)
+                        .verify(Duration.ofSeconds(5)))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+
+        // the cancel reaches the server asynchronously
+        var next = Mono.defer(() -> this.client.requestStream(DefaultPayload.create(Unpooled.EMPTY_BUFFER, routed("greetings"))).next())
+                .retryWhen(Retry.fixedDelay(50, Duration.ofMillis(10)).filter(RejectedException.class::isInstance))
+                .block(Duration.ofSeconds(5));
+        assertThat(next).isNotNull();
+        assertThat(this.registry.get("rsocket.quota.rejected").tags("route", "greetings", "reason", "streams").counter().count())
+                .isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void keepsCountingAStreamOpenLongerThanTheIdleTimeout() {
+        StepVerifier.create(this.client.requestStream(DefaultPayload.create(Unpooled.EMPTY_BUFFER, routed("greetings"))))
+                .expectNextCount(1)
+                .then(() -> StepVerifier.create(Mono.delay(Duration.ofMillis(500)).thenMany(Flux.defer(() ->
+                                this.client.requestStream(DefaultPayload.create(Unpooled.EMPTY_BUFFER, routed("greetings"))))))
+                        .expectError(RejectedException.class)
+                        .verify(Duration.ofSeconds(5)))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void sharesOneQuotaAcrossRoutesNoHandlerIsMappedTo() {
+        StepVerifier.create(this.client.requestStream(DefaultPayload.create(Unpooled.EMPTY_BUFFER, routed("made-up-1"))))
+                .expectNextCount(1)
+                .then(() -> StepVerifier.create(this.client.requestStream(DefaultPayload.create(Unpooled.EMPTY_BUFFER, routed("made-up-2"))))
+                        .expectError(RejectedException.class)
+                        .verify(Duration.ofSeconds(5)))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(this.registry.get("rsocket.quota.rejected").tags("route", Routes.UNKNOWN, "reason", "streams").counter().count())
+                .isEqualTo(1);
+        assertThat(this.registry.find("rsocket.quota.rejected").tags("route", "made-up-2").counters()).isEmpty();
+    }
+
+    private static ByteBuf routed(String route) {
+        var allocator = ByteBufAllocator.DEFAULT;
+        var metadata = allocator.compositeBuffer();
+        CompositeMetadataCodec.encodeAndAddMetadata(metadata, allocator, WellKnownMimeType.MESSAGE_RSOCKET_ROUTING,
+                TaggingMetadataCodec.createRoutingMetadata(allocator, List.of(route)).getContent());
+        return metadata;
+    }
+
+    static class GreetingsController {
+
+        @MessageMapping("greetings")
+        Flux<String> greetings() {
+            return Flux.empty();
+        }
+
+        @MessageMapping("greetings.single")
+        Mono<String> single() {
+            return Mono.empty();
+        }
+    }
+}
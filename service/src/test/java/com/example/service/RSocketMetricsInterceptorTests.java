@@ -0,0 +1,113 @@
+package com.example.service;
+
+import com.example.common.Routes;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.metadata.CompositeMetadataCodec;
+import io.rsocket.metadata.TaggingMetadataCodec;
+import io.rsocket.metadata.WellKnownMimeType;
+import io.rsocket.util.DefaultPayload;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RSocketMetricsInterceptorTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final RSocket rsocket = new RSocketMetricsInterceptor(this.registry, routes(new GreetingsController())).apply(new RSocket() {
+
+        @Override
+        public Flux<Payload> requestStream(Payload payload) {
+            return Flux.range(0, 3).map(i -> DefaultPayload.create("hi " + i));
+        }
+
+        @Override
+        public Mono<Payload> requestResponse(Payload payload) {
+            return Mono.error(new IllegalStateException("boom"));
+        }
+    });
+
+    @Test
+    void recordsStreamsPerRoute() {
+        StepVerifier.create(this.rsocket.requestStream(routed("greetings"))).expectNextCount(3).verifyComplete();
+
+        var request = this.registry.get("rsocket.request")
+                .tags("route", "greetings", "interaction", "request_stream", "outcome", "success")
+                .timer();
+        assertThat(request.count()).isEqualTo(1);
+        assertThat(this.registry.get("rsocket.request.first").tags("route", "greetings").timer().count()).isEqualTo(1);
+        assertThat(this.registry.get("rsocket.stream.interval").tags("route", "greetings").timer().count()).isEqualTo(2);
+        assertThat(this.registry.get("rsocket.stream.elements").tags("route", "greetings").summary().totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void recordsCancellationsAndErrors() {
+        StepVerifier.create(this.rsocket.requestStream(routed("greetings"))).expectNextCount(1).thenCancel().verify();
+        StepVerifier.create(this.rsocket.requestResponse(routed("greetings"))).verifyError(IllegalStateException.class);
+
+        assertThat(this.registry.get("rsocket.request").tags("interaction", "request_stream", "outcome", "cancelled").timer().count())
+                .isEqualTo(1);
+        assertThat(this.registry.get("rsocket.request").tags("interaction", "request_response", "outcome", "error").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void fallsBackWhenThereIsNoRoute() {
+        StepVerifier.create(this.rsocket.requestStream(DefaultPayload.create("hi"))).expectNextCount(3).verifyComplete();
+        assertThat(this.registry.get("rsocket.request").tags("route", Routes.UNKNOWN).timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void collapsesRoutesNoHandlerIsMappedTo() {
+        StepVerifier.create(this.rsocket.requestStream(routed("made-up-1"))).expectNextCount(3).verifyComplete();
+        StepVerifier.create(this.rsocket.requestStream(routed("made-up-2"))).expectNextCount(3).verifyComplete();
+
+        assertThat(this.registry.get("rsocket.request").tags("route", Routes.UNKNOWN).timer().count()).isEqualTo(2);
+        assertThat(this.registry.find("rsocket.request").tags("route", "made-up-1").timers()).isEmpty();
+    }
+
+    @Test
+    void tagsRoutesWithTheirPattern() {
+        StepVerifier.create(this.rsocket.requestStream(routed("greetings.jlong"))).expectNextCount(3).verifyComplete();
+        assertThat(this.registry.get("rsocket.request").tags("route", "greetings.{name}").timer().count()).isEqualTo(1);
+    }
+
+    static MappedRoutes routes(Object... controllers) {
+        var handler = new RSocketMessageHandler();
+        handler.setHandlers(List.of(controllers));
+        handler.afterPropertiesSet();
+        return new MappedRoutes(handler);
+    }
+
+    static Payload routed(String route) {
+        var allocator = ByteBufAllocator.DEFAULT;
+        var metadata = allocator.compositeBuffer();
+        var routing = TaggingMetadataCodec.createRoutingMetadata(allocator, List.of(route));
+        CompositeMetadataCodec.encodeAndAddMetadata(metadata, allocator, WellKnownMimeType.MESSAGE_RSOCKET_ROUTING, routing.getContent());
+        return DefaultPayload.create(Unpooled.EMPTY_BUFFER, metadata);
+    }
+
+    static class GreetingsController {
+
+        @MessageMapping("greetings")
+        Flux<String> greetings() {
+            return Flux.empty();
+        }
+
+        @MessageMapping("greetings.{name}")
+        Flux<String> greetingsFor() {
+            return Flux.empty();
+        }
+    }
+}
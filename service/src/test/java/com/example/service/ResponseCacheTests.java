@@ -0,0 +1,106 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.SocketAcceptor;
+import io.rsocket.core.RSocketConnector;
+import io.rsocket.core.RSocketServer;
+import io.rsocket.metadata.CompositeMetadataCodec;
+import io.rsocket.metadata.TaggingMetadataCodec;
+import io.rsocket.metadata.WellKnownMimeType;
+import io.rsocket.transport.local.LocalServerTransport;
+import io.rsocket.util.ByteBufPayload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private Disposable server;
+    private RSocket client;
+
+    @BeforeEach
+    void setUp() {
+        var properties = new ResponseCacheProperties();
+        properties.getRoutes().get("greetings.single").setTimeToLive(Duration.ofMinutes(1));
+        var cache = new ResponseCache(properties, this.registry);
+        // slow enough for concurrent requests to overlap
+        SocketAcceptor handler = SocketAcceptor.forRequestResponse(payload -> {
+            this.executions.incrementAndGet();
+            var name = payload.getDataUtf8();
+            payload.release();
+            return Mono.delay(Duration.ofMillis(100)).map(tick -> ByteBufPayload.create("ni hao " + name + "!"));
+        });
+        var transport = LocalServerTransport.createEphemeral();
+        this.server = RSocketServer
+                .create(handler)
+                .interceptors(interceptors -> interceptors.forSocketAcceptor(cache))
+                .bind(transport)
+                .block();
+        this.client = RSocketConnector.connectWith(transport.clientTransport()).block();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.client.dispose();
+        this.server.dispose();
+    }
+
+    @Test
+    void sharesOneExecutionBetweenIdenticalRequests() {
+        var responses = Flux
+                .merge(this.greet("jlong"), this.greet("jlong"), this.greet("jlong"))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+        assertThat(responses).containsOnly("ni hao jlong!").hasSize(3);
+        assertThat(this.greet("jlong").block(Duration.ofSeconds(5))).isEqualTo("ni hao jlong!");
+
+        assertThat(this.executions).hasValue(1);
+        assertThat(this.registry.get("cache.gets")
+                .tags("cache", "rsocket.response.cache", "route", "greetings.single", "result", "hit")
+                .functionCounter()
+                .count()).isEqualTo(3);
+    }
+
+    @Test
+    void runsDifferentRequestsSeparately() {
+        assertThat(this.greet("jlong").block(Duration.ofSeconds(5))).isEqualTo("ni hao jlong!");
+        assertThat(this.greet("mark").block(Duration.ofSeconds(5))).isEqualTo("ni hao mark!");
+        assertThat(this.executions).hasValue(2);
+    }
+
+    private Mono<String> greet(String name) {
+        return this.client
+                .requestResponse(ByteBufPayload.create(Unpooled.copiedBuffer(name, StandardCharsets.UTF_8), routed("greetings.single")))
+                .map(payload -> {
+                    var data = payload.getDataUtf8();
+                    payload.release();
+                    return data;
+                });
+    }
+
+    private static ByteBuf routed(String route) {
+        var allocator = ByteBufAllocator.DEFAULT;
+        var metadata = allocator.compositeBuffer();
+        CompositeMetadataCodec.encodeAndAddMetadata(metadata, allocator, WellKnownMimeType.MESSAGE_RSOCKET_ROUTING,
+                TaggingMetadataCodec.createRoutingMetadata(allocator, List.of(route)).getContent());
+        return metadata;
+    }
+}
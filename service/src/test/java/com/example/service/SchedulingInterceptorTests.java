@@ -0,0 +1,101 @@
+package com.example.service;
+
+import io.rsocket.metadata.WellKnownMimeType;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.rsocket.context.LocalRSocketServerPort;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.security.rsocket.metadata.SimpleAuthenticationEncoder;
+import org.springframework.security.rsocket.metadata.UsernamePasswordMetadata;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+// BlockHound instruments the whole JVM, the build runs this class in a JVM of its own
+@SpringBootTest(properties = {
+        "spring.rsocket.server.port=0",
+        "service.rsocket.handlers.execution=bounded-elastic"
+})
+@Import(SchedulingInterceptorTests.BlockingController.class)
+class SchedulingInterceptorTests {
+
+    private static final MimeType AUTHENTICATION = MimeTypeUtils.parseMimeType(WellKnownMimeType.MESSAGE_RSOCKET_AUTHENTICATION.getString());
+    private static final UsernamePasswordMetadata CREDENTIALS = new UsernamePasswordMetadata("jlong", "pw");
+
+    @Autowired
+    private RSocketStrategies strategies;
+
+    @LocalRSocketServerPort
+    private int port;
+
+    @BeforeAll
+    static void installBlockHound() {
+        BlockHound.install();
+    }
+
+    @Test
+    void blockingOnTheEventLoopIsCaught() {
+        // parallel threads are non-blocking, just like Netty's event loops
+        StepVerifier.create(BlockingController.blocking().subscribeOn(Schedulers.parallel()))
+                .expectError(BlockingOperationError.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void handlersMovedToABoundedElasticSchedulerMayBlock() {
+        var requester = this.connect();
+
+        StepVerifier.create(requester.route("blocking").metadata(CREDENTIALS, AUTHENTICATION).retrieveMono(String.class))
+                .expectNext("done")
+                .verifyComplete();
+        StepVerifier.create(requester.route("blocking.stream").metadata(CREDENTIALS, AUTHENTICATION).retrieveFlux(String.class))
+                .expectNextCount(3)
+                .verifyComplete();
+        requester.rsocket().dispose();
+    }
+
+    private RSocketRequester connect() {
+        var strategies = this.strategies.mutate().encoder(new SimpleAuthenticationEncoder()).build();
+        return RSocketRequester
+                .builder()
+                .rsocketStrategies(strategies)
+                .setupMetadata(CREDENTIALS, AUTHENTICATION)
+                .connectTcp("localhost", this.port)
+                .block(Duration.ofSeconds(5));
+    }
+
+    // a handler that blocks, the way a JDBC call or a synchronous client would
+    @Controller
+    static class BlockingController {
+
+        @MessageMapping("blocking")
+        Mono<String> blockingOne() {
+            return blocking();
+        }
+
+        @MessageMapping("blocking.stream")
+        Flux<String> blockingStream() {
+            return blocking().repeat(2);
+        }
+
+        static Mono<String> blocking() {
+            return Mono.fromCallable(() -> {
+                Thread.sleep(10);
+                return "done";
+            });
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.rsocket.exceptions.CanceledException;
+import org.junit.jupiter.api.Test;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowConsumerGuardTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+    private final GreetingsProperties properties = new GreetingsProperties();
+
+    SlowConsumerGuardTests() {
+        this.properties.setStallThreshold(Duration.ofSeconds(10));
+        this.properties.setMaxBuffered(4);
+    }
+
+    @Test
+    void cancelsAConsumerThatStopsRequesting() {
+        this.properties.setCancelStalled(true);
+        var guard = new SlowConsumerGuard(this.properties, this.registry, this.scheduler);
+
+        StepVerifier.create(guard.watch(Flux.range(0, 10)), 2)
+                .expectNext(0, 1)
+                .then(() -> this.scheduler.advanceTimeBy(Duration.ofSeconds(20)))
+                .expectError(CanceledException.class)
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(this.registry.get("rsocket.stream.stalled").counter().count()).isEqualTo(1);
+        assertThat(this.registry.get("rsocket.stream.stalled.cancelled").counter().count()).isEqualTo(1);
+        assertThat(this.registry.get("rsocket.stream.stalled.active").gauge().value()).isZero();
+    }
+
+    @Test
+    void leavesAConsumerThatKeepsRequestingAlone() {
+        this.properties.setCancelStalled(true);
+        var guard = new SlowConsumerGuard(this.properties, this.registry, this.scheduler);
+
+        StepVerifier.create(guard.watch(Flux.range(0, 10)), 2)
+                .expectNextCount(2)
+                .then(() -> this.scheduler.advanceTimeBy(Duration.ofSeconds(5)))
+                .thenRequest(8)
+                .expectNextCount(8)
+                .verifyComplete();
+
+        assertThat(this.registry.get("rsocket.stream.stalled").counter().count()).isZero();
+    }
+
+    @Test
+    void onlyReportsWhenCancellingIsOff() {
+        var guard = new SlowConsumerGuard(this.properties, this.registry, this.scheduler);
+
+        StepVerifier.create(guard.watch(Flux.range(0, 10)), 2)
+                .expectNextCount(2)
+                .then(() -> this.scheduler.advanceTimeBy(Duration.ofSeconds(20)))
+                .then(() -> assertThat(this.registry.get("rsocket.stream.stalled.active").gauge().value()).isEqualTo(1))
+                .thenRequest(8)
+                .expectNextCount(8)
+                .verifyComplete();
+
+        assertThat(this.registry.get("rsocket.stream.stalled").counter().count()).isEqualTo(1);
+        assertThat(this.registry.get("rsocket.stream.stalled.active").gauge().value()).isZero();
+    }
+
+    @Test
+    void keepsTheNewestWhenTheBufferIsFull() {
+        this.properties.setOverflow(GreetingsProperties.Overflow.DROP_OLDEST);
+        var guard = new SlowConsumerGuard(this.properties, this.registry, this.scheduler);
+
+        StepVerifier.create(guard.bounded(Flux.range(0, 10), 1), 0)
+                .thenRequest(10)
+                .expectNext(6, 7, 8, 9)
+                .verifyComplete();
+        // two greetings per item, so only two items fit
+        StepVerifier.create(guard.bounded(Flux.range(0, 10), 2), 0)
+                .thenRequest(10)
+                .expectNext(8, 9)
+                .verifyComplete();
+
+        assertThat(this.registry.get("rsocket.stream.dropped").counter().count()).isEqualTo(6 + 8 * 2);
+    }
+
+    @Test
+    void keepsOnlyTheLatest() {
+        this.properties.setOverflow(GreetingsProperties.Overflow.LATEST);
+        var guard = new SlowConsumerGuard(this.properties, this.registry, this.scheduler);
+
+        StepVerifier.create(guard.bounded(Flux.range(0, 10), 1), 0)
+                .thenRequest(10)
+                .expectNext(9)
+                .verifyComplete();
+    }
+
+    @Test
+    void failsTheStreamWhenTheBufferOverflowsByDefault() {
+        var guard = new SlowConsumerGuard(this.properties, this.registry, this.scheduler);
+
+        StepVerifier.create(guard.bounded(Flux.range(0, 10), 1), 0)
+                .thenRequest(10)
+                .expectNext(0, 1, 2, 3)
+                .expectErrorMatches(Exceptions::isOverflow)
+                .verify();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTests {
+
+    @Test
+    void allowsABurstThenTheRate() {
+        var bucket = new TokenBucket(10, 5, 0);
+        for (var i = 0; i < 5; i++) {
+            assertThat(bucket.tryTake(0)).isTrue();
+        }
+        assertThat(bucket.tryTake(0)).isFalse();
+
+        // one token comes back every 100ms
+        assertThat(bucket.tryTake(TimeUnit.MILLISECONDS.toNanos(99))).isFalse();
+        assertThat(bucket.tryTake(TimeUnit.MILLISECONDS.toNanos(100))).isTrue();
+        assertThat(bucket.tryTake(TimeUnit.MILLISECONDS.toNanos(100))).isFalse();
+    }
+
+    @Test
+    void fillsUpToTheBurstOnly() {
+        var bucket = new TokenBucket(10, 5, 0);
+        var later = TimeUnit.MINUTES.toNanos(1);
+        var taken = 0;
+        while (bucket.tryTake(later)) {
+            taken++;
+        }
+        assertThat(taken).isEqualTo(5);
+    }
+}
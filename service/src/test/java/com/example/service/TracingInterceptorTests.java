@@ -0,0 +1,161 @@
+package com.example.service;
+
+import com.example.common.Span;
+import com.example.common.TracingInterceptor;
+import io.rsocket.metadata.WellKnownMimeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.rsocket.context.LocalRSocketServerPort;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
+import org.springframework.security.rsocket.metadata.SimpleAuthenticationEncoder;
+import org.springframework.security.rsocket.metadata.UsernamePasswordMetadata;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the real greetings route and health monitor, over TCP
+@SpringBootTest(properties = {
+        "spring.rsocket.server.port=0",
+        "service.rsocket.tracing.enabled=true",
+        "service.rsocket.tracing.sample-rate=1",
+        "service.greetings.count=5",
+        "service.greetings.interval=100ms"
+})
+class TracingInterceptorTests {
+
+    private static final MimeType AUTHENTICATION = MimeTypeUtils.parseMimeType(WellKnownMimeType.MESSAGE_RSOCKET_AUTHENTICATION.getString());
+    private static final UsernamePasswordMetadata CREDENTIALS = new UsernamePasswordMetadata("jlong", "pw");
+
+    private final InMemorySpanExporter clientSpans = new InMemorySpanExporter(100);
+
+    @Autowired
+    private InMemorySpanExporter serviceSpans;
+
+    @Autowired
+    private RSocketStrategies strategies;
+
+    @LocalRSocketServerPort
+    private int port;
+
+    @BeforeEach
+    void clear() {
+        this.serviceSpans.clear();
+    }
+
+    @Test
+    void joinsTheHealthStreamToTheTraceOfTheGreetingsStreamThatOpenedIt() {
+        var requester = this.connect(1);
+        // the second stream starts while the first is still going and shares its health stream
+        var streams = Flux.merge(
+                this.greetings(requester),
+                this.greetings(requester).delaySubscription(Duration.ofMillis(200)));
+        StepVerifier.create(streams).expectNextCount(10).verifyComplete();
+
+        // the health stream ends, and its spans finish, with the last greetings stream
+        Mono.fromCallable(() -> this.clientSpans.spans().size() + this.serviceSpans.spans().size())
+                .filter(size -> size == 6)
+                .repeatWhenEmpty(attempts -> attempts.delayElements(Duration.ofMillis(10)))
+                .block(Duration.ofSeconds(5));
+        requester.rsocket().dispose();
+
+        var requests = this.clientSpans
+                .spans()
+                .stream()
+                .filter(span -> span.getKind() == Span.Kind.CLIENT)
+                .sorted(Comparator.comparingLong(Span::getStartMicros))
+                .collect(Collectors.toList());
+        var opened = this.trace(requests.get(0));
+        var joined = this.trace(requests.get(1));
+
+        assertThat(names(opened)).containsExactlyInAnyOrder("greetings/CLIENT", "greetings/SERVER", "health/CLIENT", "health/SERVER");
+        assertThat(span(opened, "health/CLIENT").getParentId()).isEqualTo(span(opened, "greetings/SERVER").getSpanId());
+        assertThat(span(opened, "health/SERVER").getParentId()).isEqualTo(span(opened, "health/CLIENT").getSpanId());
+        assertThat(span(opened, "greetings/SERVER").getService()).isEqualTo("service");
+        assertThat(span(opened, "greetings/SERVER").getOutcome()).isEqualTo("onComplete");
+        assertThat(names(joined)).containsExactlyInAnyOrder("greetings/CLIENT", "greetings/SERVER");
+    }
+
+    @Test
+    void followsTheDecisionOfWhereTheTraceStarted() {
+        var requester = this.connect(0);
+        StepVerifier.create(this.greetings(requester)).expectNextCount(5).verifyComplete();
+        requester.rsocket().dispose();
+
+        assertThat(this.clientSpans.spans()).isEmpty();
+        assertThat(this.serviceSpans.spans()).isEmpty();
+    }
+
+    private Flux<GreetingResponse> greetings(RSocketRequester requester) {
+        return requester
+                .route("greetings")
+                .metadata(CREDENTIALS, AUTHENTICATION)
+                .retrieveFlux(GreetingResponse.class);
+    }
+
+    private RSocketRequester connect(double sampleRate) {
+        var tracing = new TracingInterceptor("client", sampleRate, this.clientSpans);
+        var strategies = this.strategies.mutate().encoder(new SimpleAuthenticationEncoder()).build();
+        return RSocketRequester
+                .builder()
+                .rsocketStrategies(strategies)
+                .setupMetadata(CREDENTIALS, AUTHENTICATION)
+                .rsocketConnector(connector -> connector
+                        .acceptor(RSocketMessageHandler.responder(strategies, new HealthController()))
+                        .interceptors(registry -> registry
+                                .forResponder(tracing::responder)
+                                .forRequester(tracing::requester)))
+                .connectTcp("localhost", this.port)
+                .block(Duration.ofSeconds(5));
+    }
+
+    private List<Span> trace(Span span) {
+        return Stream
+                .concat(this.clientSpans.trace(span.getTraceId()).stream(), this.serviceSpans.trace(span.getTraceId()).stream())
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> names(List<Span> spans) {
+        return spans.stream().map(span -> span.getName() + '/' + span.getKind()).collect(Collectors.toList());
+    }
+
+    private static Span span(List<Span> spans, String name) {
+        return spans.stream().filter(span -> name.equals(span.getName() + '/' + span.getKind())).findFirst().orElseThrow();
+    }
+
+    static class HealthController {
+
+        @MessageMapping("health")
+        Flux<ClientHealthState> health() {
+            return Flux.interval(Duration.ofMillis(50)).map(tick -> new ClientHealthState(true));
+        }
+    }
+
+    @TestConfiguration
+    static class Spans {
+
+        // in place of the logging exporter
+        @Bean
+        @Primary
+        InMemorySpanExporter inMemorySpanExporter() {
+            return new InMemorySpanExporter(100);
+        }
+    }
+}
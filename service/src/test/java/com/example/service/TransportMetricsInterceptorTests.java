@@ -0,0 +1,58 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.SocketAcceptor;
+import io.rsocket.core.RSocketConnector;
+import io.rsocket.core.RSocketServer;
+import io.rsocket.transport.local.LocalServerTransport;
+import io.rsocket.util.DefaultPayload;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransportMetricsInterceptorTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void countsConnectionsFramesAndBytesPerTransport() {
+        var server = RSocketServer.create(SocketAcceptor.forRequestResponse(Mono::just));
+        new TransportMetricsInterceptor("local", this.registry).customize(server);
+        var transport = LocalServerTransport.createEphemeral();
+        var closeable = server.bind(transport).block();
+
+        RSocket client = RSocketConnector.connectWith(transport.clientTransport()).block();
+        Payload response = client.requestResponse(DefaultPayload.create("hello")).block(Duration.ofSeconds(5));
+        assertThat(response.getDataUtf8()).isEqualTo("hello");
+
+        assertThat(this.gauge()).isEqualTo(1);
+        // SETUP and the request in, the response out
+        assertThat(this.count("rsocket.transport.frames", "inbound")).isGreaterThanOrEqualTo(2);
+        assertThat(this.count("rsocket.transport.frames", "outbound")).isGreaterThanOrEqualTo(1);
+        assertThat(this.count("rsocket.transport.bytes", "outbound")).isGreaterThan(5);
+
+        client.dispose();
+        client.onClose().block(Duration.ofSeconds(5));
+        closeable.dispose();
+        closeable.onClose().block(Duration.ofSeconds(5));
+        // the server side of the connection closes asynchronously
+        var open = Mono.fromCallable(this::gauge)
+                .filter(connections -> connections == 0)
+                .repeatWhenEmpty(attempts -> attempts.delayElements(Duration.ofMillis(10)))
+                .block(Duration.ofSeconds(5));
+        assertThat(open).isZero();
+    }
+
+    private double gauge() {
+        return this.registry.get("rsocket.transport.connections").tag("transport", "local").gauge().value();
+    }
+
+    private double count(String name, String direction) {
+        return this.registry.get(name).tags("transport", "local", "direction", direction).counter().count();
+    }
+}